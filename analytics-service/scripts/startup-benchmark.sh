@@ -0,0 +1,85 @@
+#!/usr/bin/env bash
+# Measures time-to-first-successful-/api/analyze and resident memory for the analytics service.
+#
+# Usage: scripts/startup-benchmark.sh <jvm|aot|cds|native> [runs]
+#
+#   jvm     plain fat jar                           (mvn package)
+#   aot     AOT-processed fat jar, spring.aot.enabled (mvn -Paot package)
+#   cds     aot + AppCDS archive trained on the first run
+#   native  GraalVM native executable              (mvn -Pnative native:compile)
+#
+# Prints one line per run and the median of each column. Run from analytics-service/.
+set -euo pipefail
+
+MODE="${1:?mode required: jvm|aot|cds|native}"
+RUNS="${2:-5}"
+PORT="${BENCH_PORT:-18181}"
+PAYLOAD="$(dirname "$0")/sample-snapshot.json"
+JAR="target/analytics-service-0.1.0.jar"
+CDS_DIR="target/cds"
+# Warm-up is off: it would compete with the first request this script is timing.
+APP_ARGS=(--server.port="$PORT" --analytics.grpc.enabled=false --analytics.warmup.enabled=false)
+
+now_ms() {
+  date +%s%3N
+}
+
+rss_kb() {
+  if [[ -r "/proc/$1/status" ]]; then
+    awk '/VmRSS/ {print $2}' "/proc/$1/status"
+  else
+    ps -o rss= -p "$1" | tr -d ' '
+  fi
+}
+
+prepare_cds() {
+  if [[ ! -f "$CDS_DIR/application.jsa" ]]; then
+    rm -rf "$CDS_DIR"
+    java -Djarmode=tools -jar "$JAR" extract --destination "$CDS_DIR" >/dev/null
+    # Training run: refresh the context once and dump the loaded classes.
+    java -XX:ArchiveClassesAtExit="$CDS_DIR/application.jsa" -Dspring.aot.enabled=true \
+      -Dspring.context.exit=onRefresh -jar "$CDS_DIR/analytics-service-0.1.0.jar" "${APP_ARGS[@]}" >/dev/null
+  fi
+}
+
+launch() {
+  case "$MODE" in
+    jvm) exec java -jar "$JAR" "${APP_ARGS[@]}" ;;
+    aot) exec java -Dspring.aot.enabled=true -jar "$JAR" "${APP_ARGS[@]}" ;;
+    cds) exec java -XX:SharedArchiveFile="$CDS_DIR/application.jsa" -Dspring.aot.enabled=true \
+           -jar "$CDS_DIR/analytics-service-0.1.0.jar" "${APP_ARGS[@]}" ;;
+    native) exec target/analytics-service "${APP_ARGS[@]}" ;;
+    *) echo "unknown mode: $MODE" >&2; exit 2 ;;
+  esac
+}
+
+[[ "$MODE" == "cds" ]] && prepare_cds
+
+startup=()
+memory=()
+printf '%-4s %12s %10s\n' run first_ok_ms rss_mb
+for run in $(seq 1 "$RUNS"); do
+  start=$(now_ms)
+  launch >/dev/null 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null -H 'Content-Type: application/json' \
+      --data-binary @"$PAYLOAD" "http://localhost:$PORT/api/analyze"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "service exited before answering" >&2
+      exit 1
+    fi
+    sleep 0.02
+  done
+  elapsed=$(( $(now_ms) - start ))
+  rss=$(( $(rss_kb "$pid") / 1024 ))
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  startup+=("$elapsed")
+  memory+=("$rss")
+  printf '%-4s %12s %10s\n' "$run" "$elapsed" "$rss"
+done
+
+median() {
+  printf '%s\n' "$@" | sort -n | awk '{a[NR]=$1} END {print (NR % 2) ? a[(NR + 1) / 2] : (a[NR / 2] + a[NR / 2 + 1]) / 2}'
+}
+printf '%-4s %12s %10s\n' med "$(median "${startup[@]}")" "$(median "${memory[@]}")"
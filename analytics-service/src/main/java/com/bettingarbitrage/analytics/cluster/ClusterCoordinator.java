@@ -0,0 +1,244 @@
+package com.bettingarbitrage.analytics.cluster;
+
+import com.bettingarbitrage.analytics.model.AnalyzeRequest;
+import com.bettingarbitrage.analytics.model.AnalyzeResponse;
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.SweepResult;
+import com.bettingarbitrage.analytics.service.AnalysisBudget;
+import com.bettingarbitrage.analytics.service.AnalysisListener;
+import com.bettingarbitrage.analytics.service.ArbitrageService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Scatter/gather front for {@link ArbitrageService} in cluster mode. Markets are partitioned by the owner of
+ * their {@code eventId} on the hash ring; every partition is analysed by its owner (this node included) and the
+ * partial results are merged in {@code guaranteedProfitFraction} order. Because an event never spans partitions,
+ * the merged result matches what a single node would return.
+ */
+@Service
+public class ClusterCoordinator {
+
+    public static final String FORWARDED_HEADER = "X-Analytics-Forwarded";
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterCoordinator.class);
+    private static final Comparator<OpportunityResponse> BY_EDGE =
+        Comparator.comparingDouble(OpportunityResponse::getGuaranteedProfitFraction).reversed();
+
+    private final ArbitrageService arbitrageService;
+    private final ClusterMembership membership;
+    private final RestClient peerClient;
+    private final ExecutorService scatterExecutor;
+
+    public ClusterCoordinator(
+        ArbitrageService arbitrageService,
+        ClusterMembership membership,
+        RestClient.Builder restClientBuilder,
+        @Value("${analytics.cluster.timeout-ms:5000}") int timeoutMs
+    ) {
+        this.arbitrageService = arbitrageService;
+        this.membership = membership;
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMs);
+        requestFactory.setReadTimeout(timeoutMs);
+        this.peerClient = restClientBuilder.requestFactory(requestFactory).build();
+        this.scatterExecutor = Executors.newFixedThreadPool(Math.max(2, membership.getPeers().size()), runnable -> {
+            Thread thread = new Thread(runnable, "cluster-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return membership.isEnabled();
+    }
+
+    public AnalyzeResponse analyze(AnalyzeRequest request, AnalysisBudget budget) {
+        return analyze(request, budget, AnalysisListener.NONE);
+    }
+
+    /**
+     * Scatter/gather with streaming: opportunities of this node's own partition reach {@code listener} as they
+     * are evaluated, those of each peer partition as soon as that peer has answered. The ranking callback only
+     * covers the local partition.
+     */
+    public AnalyzeResponse analyze(AnalyzeRequest request, AnalysisBudget budget, AnalysisListener listener) {
+        ConsistentHashRing ring = membership.getRing();
+        Map<String, List<MarketSnapshot>> partitions = partition(request.getMarkets(), ring);
+        if (partitions.isEmpty()) {
+            return arbitrageService.analyzeSnapshot(request, budget, listener);
+        }
+
+        // Peers start first so their share runs while this node analyses its own.
+        BlockingQueue<CompletableFuture<AnalyzeResponse>> completed = new LinkedBlockingQueue<>();
+        int forwarded = 0;
+        AnalyzeRequest localRequest = null;
+        for (Map.Entry<String, List<MarketSnapshot>> partition : partitions.entrySet()) {
+            AnalyzeRequest partialRequest = copyWithMarkets(request, partition.getValue());
+            String owner = partition.getKey();
+            if (owner.equals(membership.getSelf())) {
+                localRequest = partialRequest;
+            } else {
+                AnalysisBudget forwardBudget = budget.fork();
+                CompletableFuture<AnalyzeResponse> future =
+                    CompletableFuture.supplyAsync(() -> forward(owner, partialRequest, forwardBudget), scatterExecutor);
+                future.whenComplete((response, failure) -> completed.add(future));
+                forwarded++;
+            }
+        }
+
+        List<AnalyzeResponse> responses = new ArrayList<>(partitions.size());
+        if (localRequest != null) {
+            responses.add(arbitrageService.analyzeSnapshot(localRequest, budget, listener));
+        }
+        try {
+            for (int i = 0; i < forwarded; i++) {
+                AnalyzeResponse response = completed.take().join();
+                for (OpportunityResponse opportunity : response.getOpportunities()) {
+                    listener.onOpportunity(opportunity);
+                }
+                responses.add(response);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for peer partitions", ex);
+        }
+        return merge(responses, request);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scatterExecutor.shutdownNow();
+    }
+
+    private Map<String, List<MarketSnapshot>> partition(List<MarketSnapshot> markets, ConsistentHashRing ring) {
+        Map<String, String> ownerByEvent = new HashMap<>();
+        Map<String, List<MarketSnapshot>> partitions = new LinkedHashMap<>();
+        for (MarketSnapshot market : markets) {
+            String owner = ownerByEvent.computeIfAbsent(market.getEventId(), ring::ownerOf);
+            partitions.computeIfAbsent(owner, k -> new ArrayList<>()).add(market);
+        }
+        return partitions;
+    }
+
+    private AnalyzeResponse forward(String owner, AnalyzeRequest request, AnalysisBudget budget) {
+        try {
+            AnalyzeResponse response = peerClient.post()
+                .uri(owner + "/api/analyze")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(FORWARDED_HEADER, "true")
+                .headers(headers -> {
+                    if (budget.isLimited()) {
+                        // Peers get what is left of the caller's budget; 0 would read as "no deadline".
+                        headers.set(AnalysisBudget.DEADLINE_HEADER, String.valueOf(Math.max(1L, budget.remainingMillis())));
+                    }
+                })
+                .body(request)
+                .retrieve()
+                .body(AnalyzeResponse.class);
+            if (response == null) {
+                throw new RestClientException("Empty response from " + owner);
+            }
+            return response;
+        } catch (RestClientException ex) {
+            // The partition is analysed here so the caller still gets a complete answer; the peer leaves the
+            // ring until its next successful probe.
+            log.warn("Forwarding {} markets to {} failed, analysing locally", request.getMarkets().size(), owner, ex);
+            membership.markDown(owner);
+            return arbitrageService.analyzeSnapshot(request, budget);
+        }
+    }
+
+    private AnalyzeResponse merge(List<AnalyzeResponse> responses, AnalyzeRequest request) {
+        List<OpportunityResponse> opportunities = new ArrayList<>();
+        for (AnalyzeResponse response : responses) {
+            opportunities.addAll(response.getOpportunities());
+        }
+        opportunities.sort(BY_EDGE);
+        AnalyzeResponse merged = new AnalyzeResponse(opportunities);
+        mergePartial(responses, merged);
+
+        if (request.getParameterSets() != null && !request.getParameterSets().isEmpty()) {
+            List<SweepResult> sweeps = new ArrayList<>();
+            for (int i = 0; i < request.getParameterSets().size(); i++) {
+                SweepResult sweep = null;
+                List<OpportunityResponse> sweepOpportunities = new ArrayList<>();
+                for (AnalyzeResponse response : responses) {
+                    SweepResult partial = response.getSweeps().get(i);
+                    if (sweep == null) {
+                        sweep = new SweepResult(partial.getId(), partial.getBankroll(), partial.getMinimumEdge(), sweepOpportunities);
+                    }
+                    sweepOpportunities.addAll(partial.getOpportunities());
+                    if (Boolean.TRUE.equals(partial.getPartial())) {
+                        sweep.setPartial(true);
+                        sweep.setSkippedGroups(valueOrZero(sweep.getSkippedGroups()) + valueOrZero(partial.getSkippedGroups()));
+                        sweep.setSkippedSimulations(
+                            valueOrZero(sweep.getSkippedSimulations()) + valueOrZero(partial.getSkippedSimulations()));
+                        sweep.setShortenedSimulations(
+                            valueOrZero(sweep.getShortenedSimulations()) + valueOrZero(partial.getShortenedSimulations()));
+                    }
+                }
+                sweepOpportunities.sort(BY_EDGE);
+                sweeps.add(sweep);
+            }
+            merged.setSweeps(sweeps);
+        }
+        return merged;
+    }
+
+    private void mergePartial(List<AnalyzeResponse> responses, AnalyzeResponse merged) {
+        int skippedGroups = 0;
+        int skippedSimulations = 0;
+        int shortenedSimulations = 0;
+        boolean partial = false;
+        for (AnalyzeResponse response : responses) {
+            if (Boolean.TRUE.equals(response.getPartial())) {
+                partial = true;
+                skippedGroups += valueOrZero(response.getSkippedGroups());
+                skippedSimulations += valueOrZero(response.getSkippedSimulations());
+                shortenedSimulations += valueOrZero(response.getShortenedSimulations());
+            }
+        }
+        if (partial) {
+            merged.setPartial(true);
+            merged.setSkippedGroups(skippedGroups);
+            merged.setSkippedSimulations(skippedSimulations);
+            merged.setShortenedSimulations(shortenedSimulations);
+        }
+    }
+
+    private int valueOrZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    private AnalyzeRequest copyWithMarkets(AnalyzeRequest request, List<MarketSnapshot> markets) {
+        AnalyzeRequest copy = new AnalyzeRequest();
+        copy.setSnapshotTime(request.getSnapshotTime());
+        copy.setBankroll(request.getBankroll());
+        copy.setMinimumEdge(request.getMinimumEdge());
+        copy.setParameterSets(request.getParameterSets());
+        copy.setMarkets(markets);
+        return copy;
+    }
+}
@@ -0,0 +1,142 @@
+package com.bettingarbitrage.analytics.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tracks which nodes of the static peer list are currently serving and keeps the hash ring in step with them.
+ * Peers are probed through their readiness endpoint; a peer that fails a probe or a forwarded request leaves the
+ * ring until it passes a probe again, which rebalances its events onto the remaining nodes.
+ */
+@Component
+public class ClusterMembership {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterMembership.class);
+
+    private final boolean enabled;
+    private final String self;
+    private final List<String> peers;
+    private final int virtualNodes;
+    private final RestClient probeClient;
+    private final Set<String> live = new LinkedHashSet<>();
+    private volatile ConsistentHashRing ring;
+
+    public ClusterMembership(
+        @Value("${analytics.cluster.enabled:false}") boolean enabled,
+        @Value("${analytics.cluster.self:}") String self,
+        @Value("${analytics.cluster.peers:}") String peers,
+        @Value("${analytics.cluster.virtual-nodes:128}") int virtualNodes,
+        @Value("${analytics.cluster.timeout-ms:5000}") int timeoutMs,
+        RestClient.Builder restClientBuilder
+    ) {
+        this.enabled = enabled;
+        this.self = normalise(self);
+        this.virtualNodes = virtualNodes;
+
+        Set<String> members = new LinkedHashSet<>();
+        Arrays.stream(peers.split(","))
+            .map(ClusterMembership::normalise)
+            .filter(peer -> !peer.isEmpty())
+            .forEach(members::add);
+        if (enabled) {
+            if (this.self.isEmpty()) {
+                throw new IllegalStateException("analytics.cluster.self is required when cluster mode is enabled");
+            }
+            members.add(this.self);
+        }
+        this.peers = List.copyOf(members);
+        this.live.addAll(members);
+        this.ring = new ConsistentHashRing(members, virtualNodes);
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMs);
+        requestFactory.setReadTimeout(timeoutMs);
+        this.probeClient = restClientBuilder.requestFactory(requestFactory).build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    public List<String> getPeers() {
+        return peers;
+    }
+
+    public synchronized List<String> getLiveNodes() {
+        return new ArrayList<>(live);
+    }
+
+    public ConsistentHashRing getRing() {
+        return ring;
+    }
+
+    public void markDown(String node) {
+        if (!node.equals(self)) {
+            updateLiveness(node, false);
+        }
+    }
+
+    @Scheduled(
+        fixedDelayString = "${analytics.cluster.probe-interval-ms:2000}",
+        initialDelayString = "${analytics.cluster.probe-interval-ms:2000}"
+    )
+    public void probePeers() {
+        if (!enabled) {
+            return;
+        }
+        for (String peer : peers) {
+            if (!peer.equals(self)) {
+                updateLiveness(peer, probe(peer));
+            }
+        }
+    }
+
+    private boolean probe(String peer) {
+        try {
+            probeClient.get()
+                .uri(peer + "/actuator/health/readiness")
+                .retrieve()
+                .toBodilessEntity();
+            return true;
+        } catch (RestClientException ex) {
+            return false;
+        }
+    }
+
+    private synchronized void updateLiveness(String node, boolean up) {
+        boolean changed = up ? live.add(node) : live.remove(node);
+        if (!changed) {
+            return;
+        }
+        // Rebuild in static peer order so every node derives the same ring from the same live set.
+        List<String> ordered = new ArrayList<>();
+        for (String peer : peers) {
+            if (live.contains(peer)) {
+                ordered.add(peer);
+            }
+        }
+        ring = new ConsistentHashRing(ordered, virtualNodes);
+        log.info("Cluster node {} is {}; live nodes: {}", node, up ? "up" : "down", ordered);
+    }
+
+    private static String normalise(String url) {
+        String trimmed = url == null ? "" : url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
@@ -0,0 +1,93 @@
+package com.bettingarbitrage.analytics.config;
+
+import com.bettingarbitrage.analytics.grpc.v1.MarketQuote;
+import com.bettingarbitrage.analytics.grpc.v1.Opportunity;
+import com.bettingarbitrage.analytics.grpc.v1.OpportunityUpdate;
+import com.bettingarbitrage.analytics.grpc.v1.QuoteUpdate;
+import com.bettingarbitrage.analytics.grpc.v1.RiskMetrics;
+import com.bettingarbitrage.analytics.grpc.v1.SimulationSummary;
+import com.bettingarbitrage.analytics.grpc.v1.Stake;
+import com.bettingarbitrage.analytics.model.AnalyzeRequest;
+import com.bettingarbitrage.analytics.model.AnalyzeResponse;
+import com.bettingarbitrage.analytics.model.CanonicalEvent;
+import com.bettingarbitrage.analytics.model.LifetimeReport;
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.ParameterSet;
+import com.bettingarbitrage.analytics.model.PortfolioAllocation;
+import com.bettingarbitrage.analytics.model.PortfolioSettings;
+import com.bettingarbitrage.analytics.model.PositionAllocation;
+import com.bettingarbitrage.analytics.model.RankedGroup;
+import com.bettingarbitrage.analytics.model.ScheduleReport;
+import com.bettingarbitrage.analytics.model.ScheduledGroup;
+import com.bettingarbitrage.analytics.model.SimulateRequest;
+import com.bettingarbitrage.analytics.model.StakeResponse;
+import com.bettingarbitrage.analytics.model.SweepResult;
+import com.bettingarbitrage.analytics.model.TrackedOpportunity;
+import com.bettingarbitrage.analytics.serialization.OpportunityFragmentCache;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reflection metadata for AOT/native builds. Controller signatures already cover most DTOs, but types that are
+ * only (de)serialized indirectly - the fragment cache, peer forwarding, sweep results, portfolio allocations,
+ * lifetime and schedule reports, streamed ingestion - must be listed here. Every class in the {@code model}
+ * package is listed, which {@code NativeHintsTest} enforces. The native executable itself has not been built or
+ * measured with {@code scripts/startup-benchmark.sh}; these hints are only checked by AOT processing.
+ */
+@Configuration(proxyBeanMethods = false)
+@RegisterReflectionForBinding({
+    AnalyzeRequest.class,
+    AnalyzeResponse.class,
+    CanonicalEvent.class,
+    LifetimeReport.class,
+    MarketSnapshot.class,
+    MarketSnapshot.Runner.class,
+    MarketSnapshot.Provider.class,
+    OpportunityResponse.class,
+    ParameterSet.class,
+    PortfolioAllocation.class,
+    PortfolioSettings.class,
+    PositionAllocation.class,
+    RankedGroup.class,
+    ScheduleReport.class,
+    ScheduledGroup.class,
+    StakeResponse.class,
+    SweepResult.class,
+    TrackedOpportunity.class,
+    com.bettingarbitrage.analytics.model.RiskMetrics.class,
+    com.bettingarbitrage.analytics.model.SimulationSummary.class,
+    SimulateRequest.class
+})
+@ImportRuntimeHints(NativeHints.Registrar.class)
+public class NativeHints {
+
+    static class Registrar implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Jackson reads the fragment cache's property-filter mixins reflectively.
+            for (String mixin : new String[] {"EnvelopeMixin", "FragmentMixin", "VolatileMixin"}) {
+                hints.reflection().registerType(
+                    TypeReference.of(OpportunityFragmentCache.class.getName() + "$" + mixin),
+                    MemberCategory.DECLARED_CLASSES
+                );
+            }
+            // Full protobuf messages resolve field accessors reflectively for descriptors and toString().
+            for (Class<?> message : new Class<?>[] {
+                QuoteUpdate.class, MarketQuote.class, OpportunityUpdate.class, Opportunity.class,
+                Stake.class, RiskMetrics.class, SimulationSummary.class
+            }) {
+                hints.reflection().registerType(message,
+                    MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS);
+                hints.reflection().registerType(TypeReference.of(message.getName() + "$Builder"),
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+        }
+    }
+}
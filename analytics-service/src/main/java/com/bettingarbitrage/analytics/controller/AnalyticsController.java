@@ -1,36 +1,243 @@
 package com.bettingarbitrage.analytics.controller;
 
+import com.bettingarbitrage.analytics.cluster.ClusterCoordinator;
+import com.bettingarbitrage.analytics.ingest.ProviderPayloadReader;
 import com.bettingarbitrage.analytics.model.AnalyzeRequest;
 import com.bettingarbitrage.analytics.model.AnalyzeResponse;
+import com.bettingarbitrage.analytics.model.LifetimeReport;
+import com.bettingarbitrage.analytics.model.PortfolioSettings;
 import com.bettingarbitrage.analytics.model.SimulateRequest;
 import com.bettingarbitrage.analytics.model.SimulationSummary;
+import com.bettingarbitrage.analytics.profiling.AllocationMeter;
+import com.bettingarbitrage.analytics.profiling.AnalysisRequestEvent;
+import com.bettingarbitrage.analytics.serialization.NdjsonAnalysisWriter;
+import com.bettingarbitrage.analytics.serialization.OpportunityFragmentCache;
+import com.bettingarbitrage.analytics.service.AnalysisBudget;
+import com.bettingarbitrage.analytics.service.AnalysisListener;
 import com.bettingarbitrage.analytics.service.ArbitrageService;
+import com.bettingarbitrage.analytics.service.PortfolioAllocator;
+import com.bettingarbitrage.analytics.tracking.OpportunityTracker;
+import com.bettingarbitrage.analytics.validation.SnapshotValidator;
+import com.bettingarbitrage.analytics.validation.ValidationMode;
+import com.bettingarbitrage.analytics.warmup.WarmupRunner;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api")
 public class AnalyticsController {
 
     private final ArbitrageService arbitrageService;
+    private final SnapshotValidator snapshotValidator;
+    private final OpportunityFragmentCache fragmentCache;
+    private final ClusterCoordinator clusterCoordinator;
+    private final OpportunityTracker opportunityTracker;
+    private final PortfolioAllocator portfolioAllocator;
+    private final ProviderPayloadReader payloadReader;
+    private final NdjsonAnalysisWriter ndjsonWriter;
+    private final AllocationMeter allocationMeter;
+    private final WarmupRunner warmupRunner;
 
-    public AnalyticsController(ArbitrageService arbitrageService) {
+    public AnalyticsController(
+        ArbitrageService arbitrageService,
+        SnapshotValidator snapshotValidator,
+        OpportunityFragmentCache fragmentCache,
+        ClusterCoordinator clusterCoordinator,
+        OpportunityTracker opportunityTracker,
+        PortfolioAllocator portfolioAllocator,
+        ProviderPayloadReader payloadReader,
+        NdjsonAnalysisWriter ndjsonWriter,
+        AllocationMeter allocationMeter,
+        WarmupRunner warmupRunner
+    ) {
         this.arbitrageService = arbitrageService;
+        this.snapshotValidator = snapshotValidator;
+        this.fragmentCache = fragmentCache;
+        this.clusterCoordinator = clusterCoordinator;
+        this.opportunityTracker = opportunityTracker;
+        this.portfolioAllocator = portfolioAllocator;
+        this.payloadReader = payloadReader;
+        this.ndjsonWriter = ndjsonWriter;
+        this.allocationMeter = allocationMeter;
+        this.warmupRunner = warmupRunner;
     }
 
     @PostMapping("/analyze")
-    public ResponseEntity<AnalyzeResponse> analyze(@Valid @RequestBody AnalyzeRequest request) {
-        AnalyzeResponse response = arbitrageService.analyzeSnapshot(request);
-        return ResponseEntity.ok(response);
+    public void analyze(
+        @Valid @RequestBody AnalyzeRequest request,
+        @RequestHeader(value = ClusterCoordinator.FORWARDED_HEADER, required = false) String forwarded,
+        @RequestHeader(value = AnalysisBudget.DEADLINE_HEADER, required = false) Long deadlineMs,
+        @RequestParam(defaultValue = "0") int preface,
+        HttpServletRequest servletRequest,
+        HttpServletResponse servletResponse
+    ) throws IOException {
+        long startedNanos = System.nanoTime();
+        long allocationMark = allocationMeter.mark();
+        AnalysisBudget budget = AnalysisBudget.ofMillis(deadlineMs != null ? deadlineMs : request.getDeadlineMs());
+        analyzeAndWrite(request, List.of(), forwarded, warmupRunner.isWarmup(servletRequest), budget, preface, startedNanos, allocationMark,
+            "analyze", servletRequest, servletResponse);
+    }
+
+    /**
+     * Raw provider payloads in, opportunities out: prices are normalised and events canonicalised while the
+     * body is parsed, and the resulting snapshot goes through the same pipeline as {@code /analyze}.
+     */
+    @PostMapping(value = "/ingest", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public void ingest(
+        @RequestHeader(value = AnalysisBudget.DEADLINE_HEADER, required = false) Long deadlineMs,
+        @RequestParam(defaultValue = "0") int preface,
+        HttpServletRequest servletRequest,
+        HttpServletResponse servletResponse
+    ) throws IOException {
+        long startedNanos = System.nanoTime();
+        long allocationMark = allocationMeter.mark();
+        // Budget starts before parsing: normalisation is part of the work the caller is waiting for.
+        AnalysisBudget budget = deadlineMs != null ? AnalysisBudget.ofMillis(deadlineMs) : null;
+        ProviderPayloadReader.Result ingested;
+        try {
+            ingested = payloadReader.read(servletRequest.getInputStream());
+        } catch (JsonProcessingException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed ingest payload: " + ex.getOriginalMessage());
+        }
+        AnalyzeRequest request = ingested.getRequest();
+        if (budget == null) {
+            budget = AnalysisBudget.ofMillis(request.getDeadlineMs());
+        }
+        analyzeAndWrite(request, ingested.getRejected(), null, false, budget, preface, startedNanos, allocationMark,
+            "ingest", servletRequest, servletResponse);
+    }
+
+    /**
+     * Shared tail of {@code /analyze} and {@code /ingest}. Clients accepting {@code application/x-ndjson} get
+     * every opportunity as soon as it is evaluated, optionally preceded by the top {@code preface} ranked groups,
+     * and a closing summary record; everyone else gets a single {@link AnalyzeResponse}. Allocation is counted
+     * from {@code allocationMark} until the analysis is complete, less what the stream spent writing records
+     * along the way, so response serialization is not included in either case.
+     * Warm-up requests are analysed the same way but left out of the allocation and validation metrics, the
+     * opportunity tracker and the fragment cache, so that none of the synthetic traffic outlives the warm-up.
+     */
+    private void analyzeAndWrite(
+        AnalyzeRequest request,
+        List<String> rejected,
+        String forwarded,
+        boolean warmup,
+        AnalysisBudget budget,
+        int preface,
+        long startedNanos,
+        long allocationMark,
+        String endpoint,
+        HttpServletRequest servletRequest,
+        HttpServletResponse servletResponse
+    ) throws IOException {
+        int quotes = request.getMarkets().size() + rejected.size();
+        AnalysisRequestEvent event = AnalysisRequestEvent.begin(
+            quotes,
+            servletRequest.getContentLengthLong(),
+            request.getParameterSets() == null ? 0 : request.getParameterSets().size(),
+            warmup
+        );
+        AnalyzeResponse response = null;
+        try {
+            SnapshotValidator.Result validation = snapshotValidator.validate(request.getMarkets(), rejected, !warmup);
+            request.setMarkets(validation.getAccepted());
+
+            NdjsonAnalysisWriter.Stream stream = null;
+            if (acceptsNdjson(servletRequest)) {
+                servletResponse.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+                stream = ndjsonWriter.open(servletResponse.getOutputStream(), preface, startedNanos, !warmup);
+            }
+            AnalysisListener listener = stream != null ? stream : AnalysisListener.NONE;
+            // Requests forwarded by another node carry only the partition this node owns; warm-up stays local.
+            response = clusterCoordinator.isEnabled() && forwarded == null && !warmup
+                ? clusterCoordinator.analyze(request, budget, listener)
+                : arbitrageService.analyzeSnapshot(request, budget, listener, !warmup);
+            PortfolioSettings portfolio = request.getPortfolio();
+            if (portfolio != null && forwarded == null) {
+                double bankroll = portfolio.getBankroll() != null ? portfolio.getBankroll() : request.getBankroll();
+                response.setPortfolio(portfolioAllocator.allocate(
+                    response.getOpportunities(),
+                    bankroll > 0 ? bankroll : 1000d,
+                    portfolio
+                ));
+            }
+            if (snapshotValidator.getMode() == ValidationMode.LENIENT) {
+                response.setDroppedQuotes(validation.getDropped());
+            }
+            long allocated = allocationMeter.since(allocationMark);
+            if (allocated >= 0 && stream != null) {
+                allocated = Math.max(0, allocated - stream.allocatedBytes());
+            }
+            if (!warmup) {
+                allocationMeter.record(endpoint, allocated, quotes);
+            }
+            if (stream != null) {
+                stream.finish(response);
+            } else {
+                servletResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                if (allocated >= 0 && allocationMeter.isResponseHeaderEnabled()) {
+                    servletResponse.setHeader(AllocationMeter.HEADER, Long.toString(allocated));
+                }
+                fragmentCache.write(response, servletResponse.getOutputStream(), !warmup);
+            }
+        } finally {
+            event.finish(response == null ? 0 : response.getOpportunities().size());
+        }
+    }
+
+    private static boolean acceptsNdjson(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return false;
+        }
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                if (MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(type)) {
+                    return true;
+                }
+            }
+        } catch (InvalidMediaTypeException ex) {
+            return false;
+        }
+        return false;
     }
 
     @PostMapping("/simulate")
-    public ResponseEntity<SimulationSummary> simulate(@Valid @RequestBody SimulateRequest request) {
+    public ResponseEntity<SimulationSummary> simulate(
+        @Valid @RequestBody SimulateRequest request,
+        HttpServletRequest servletRequest
+    ) {
+        long allocationMark = allocationMeter.mark();
         SimulationSummary summary = arbitrageService.runSimulation(request);
+        long allocated = allocationMeter.since(allocationMark);
+        if (!warmupRunner.isWarmup(servletRequest)) {
+            allocationMeter.record("simulate", allocated, 0);
+        }
+        if (allocated >= 0 && allocationMeter.isResponseHeaderEnabled()) {
+            return ResponseEntity.ok().header(AllocationMeter.HEADER, Long.toString(allocated)).body(summary);
+        }
         return ResponseEntity.ok(summary);
     }
+
+    @GetMapping("/opportunities/lifetimes")
+    public ResponseEntity<LifetimeReport> lifetimes(@RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(opportunityTracker.report(Math.max(0, limit)));
+    }
 }
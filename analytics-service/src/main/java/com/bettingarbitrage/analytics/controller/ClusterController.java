@@ -0,0 +1,31 @@
+package com.bettingarbitrage.analytics.controller;
+
+import com.bettingarbitrage.analytics.cluster.ClusterMembership;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cluster")
+public class ClusterController {
+
+    private final ClusterMembership membership;
+
+    public ClusterController(ClusterMembership membership) {
+        this.membership = membership;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> cluster() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("enabled", membership.isEnabled());
+        body.put("self", membership.getSelf());
+        body.put("peers", membership.getPeers());
+        body.put("liveNodes", membership.getLiveNodes());
+        return ResponseEntity.ok(body);
+    }
+}
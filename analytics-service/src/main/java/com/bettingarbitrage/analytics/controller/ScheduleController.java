@@ -0,0 +1,53 @@
+package com.bettingarbitrage.analytics.controller;
+
+import com.bettingarbitrage.analytics.model.AnalyzeRequest;
+import com.bettingarbitrage.analytics.model.ScheduleReport;
+import com.bettingarbitrage.analytics.scheduling.ReanalysisScheduler;
+import com.bettingarbitrage.analytics.validation.SnapshotValidator;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/schedule")
+public class ScheduleController {
+
+    private final ReanalysisScheduler scheduler;
+    private final SnapshotValidator snapshotValidator;
+
+    public ScheduleController(ReanalysisScheduler scheduler, SnapshotValidator snapshotValidator) {
+        this.scheduler = scheduler;
+        this.snapshotValidator = snapshotValidator;
+    }
+
+    /**
+     * Hands quotes to the re-analysis scheduler without analysing them now; results appear in {@code GET} once
+     * their groups come due.
+     */
+    @PostMapping("/quotes")
+    public ResponseEntity<ScheduleReport> quotes(@Valid @RequestBody AnalyzeRequest request) {
+        requireEnabled();
+        request.setMarkets(snapshotValidator.validate(request.getMarkets()).getAccepted());
+        scheduler.offer(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(scheduler.report(0));
+    }
+
+    @GetMapping
+    public ResponseEntity<ScheduleReport> schedule(@RequestParam(defaultValue = "20") int limit) {
+        requireEnabled();
+        return ResponseEntity.ok(scheduler.report(Math.max(0, limit)));
+    }
+
+    private void requireEnabled() {
+        if (!scheduler.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Re-analysis scheduler is disabled");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.bettingarbitrage.analytics.grpc;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the gRPC server next to the servlet container and ties its lifetime to the application context.
+ * The enabled flag is read at runtime rather than through a bean condition so AOT-processed builds honour it.
+ */
+@Component
+public class GrpcServerLifecycle implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(GrpcServerLifecycle.class);
+
+    private final QuoteStreamService quoteStreamService;
+    private final boolean enabled;
+    private final int port;
+    private Server server;
+
+    public GrpcServerLifecycle(
+        QuoteStreamService quoteStreamService,
+        @Value("${analytics.grpc.enabled:true}") boolean enabled,
+        @Value("${analytics.grpc.port:9091}") int port
+    ) {
+        this.quoteStreamService = quoteStreamService;
+        this.enabled = enabled;
+        this.port = port;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            server = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+                .addService(quoteStreamService)
+                .build()
+                .start();
+            log.info("gRPC quote stream listening on port {}", server.getPort());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to start gRPC server on port " + port, ex);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(10, TimeUnit.SECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return server != null && !server.isShutdown();
+    }
+}
@@ -0,0 +1,127 @@
+package com.bettingarbitrage.analytics.grpc;
+
+import com.bettingarbitrage.analytics.grpc.v1.MarketQuote;
+import com.bettingarbitrage.analytics.grpc.v1.Opportunity;
+import com.bettingarbitrage.analytics.grpc.v1.RiskMetrics;
+import com.bettingarbitrage.analytics.grpc.v1.SimulationSummary;
+import com.bettingarbitrage.analytics.grpc.v1.Stake;
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.StakeResponse;
+import com.google.protobuf.Timestamp;
+
+import java.time.Instant;
+
+final class ProtoMapper {
+
+    private ProtoMapper() {
+    }
+
+    static MarketSnapshot toSnapshot(MarketQuote quote) {
+        MarketSnapshot.Runner runner = new MarketSnapshot.Runner();
+        runner.setId(quote.getRunnerId());
+        runner.setName(quote.getRunnerName());
+
+        MarketSnapshot.Provider provider = new MarketSnapshot.Provider();
+        provider.setId(quote.getProviderId());
+        provider.setName(quote.getProviderName());
+        provider.setSlug(emptyToNull(quote.getProviderSlug()));
+
+        MarketSnapshot snapshot = new MarketSnapshot();
+        snapshot.setEventId(quote.getEventId());
+        snapshot.setEventName(quote.getEventName());
+        snapshot.setMarketName(quote.getMarketName());
+        snapshot.setSport(emptyToNull(quote.getSport()));
+        snapshot.setLeague(emptyToNull(quote.getLeague()));
+        snapshot.setMarketType(emptyToNull(quote.getMarketType()));
+        if (quote.hasLine()) {
+            snapshot.setLine(quote.getLine());
+        }
+        snapshot.setRunner(runner);
+        snapshot.setProvider(provider);
+        snapshot.setOddsDecimal(quote.getOddsDecimal());
+        snapshot.setImpliedProbability(1.0 / quote.getOddsDecimal());
+        return snapshot;
+    }
+
+    static Opportunity toProto(OpportunityResponse response) {
+        Opportunity.Builder builder = Opportunity.newBuilder()
+            .setEventId(response.getEventId())
+            .setEventName(response.getEventName())
+            .setMarketName(response.getMarketName())
+            .setSumImpliedProbability(response.getSumImpliedProbability())
+            .setGuaranteedProfitFraction(response.getGuaranteedProfitFraction())
+            .setBankroll(response.getBankroll());
+        if (response.getSport() != null) {
+            builder.setSport(response.getSport());
+        }
+        if (response.getLeague() != null) {
+            builder.setLeague(response.getLeague());
+        }
+        if (Boolean.TRUE.equals(response.getCrossMarket())) {
+            builder.setCrossMarket(true);
+        }
+        if (response.getCreatedAt() != null) {
+            builder.setCreatedAt(toTimestamp(response.getCreatedAt()));
+        }
+        for (StakeResponse stake : response.getStakes()) {
+            builder.addStakes(Stake.newBuilder()
+                .setRunner(stake.getRunner())
+                .setProviderId(stake.getProviderId())
+                .setProviderName(stake.getProviderName())
+                .setOdds(stake.getOdds())
+                .setStakeFraction(stake.getStakeFraction())
+                .setStakeAmount(stake.getStakeAmount())
+                .setPayout(stake.getPayout()));
+        }
+        if (response.getMetrics() != null) {
+            builder.setMetrics(toProto(response.getMetrics()));
+        }
+        if (response.getSimulation() != null) {
+            builder.setSimulation(toProto(response.getSimulation()));
+        }
+        return builder.build();
+    }
+
+    private static RiskMetrics toProto(com.bettingarbitrage.analytics.model.RiskMetrics metrics) {
+        RiskMetrics.Builder builder = RiskMetrics.newBuilder()
+            .setExpectedValue(metrics.getExpectedValue())
+            .setStandardDeviation(metrics.getStandardDeviation())
+            .setWinProbability(metrics.getWinProbability());
+        if (metrics.getKellyFraction() != null) {
+            builder.setKellyFraction(metrics.getKellyFraction());
+        }
+        if (metrics.getSharpeRatio() != null) {
+            builder.setSharpeRatio(metrics.getSharpeRatio());
+        }
+        if (metrics.getValueAtRisk() != null) {
+            builder.setValueAtRisk(metrics.getValueAtRisk());
+        }
+        if (metrics.getMaxDrawdown() != null) {
+            builder.setMaxDrawdown(metrics.getMaxDrawdown());
+        }
+        return builder.build();
+    }
+
+    private static SimulationSummary toProto(com.bettingarbitrage.analytics.model.SimulationSummary summary) {
+        return SimulationSummary.newBuilder()
+            .setTrials(summary.getTrials())
+            .setMean(summary.getMean())
+            .setStddev(summary.getStddev())
+            .setPPositive(summary.getPPositive())
+            .setPercentile5(summary.getPercentile5())
+            .setPercentile95(summary.getPercentile95())
+            .build();
+    }
+
+    private static Timestamp toTimestamp(Instant instant) {
+        return Timestamp.newBuilder()
+            .setSeconds(instant.getEpochSecond())
+            .setNanos(instant.getNano())
+            .build();
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,269 @@
+package com.bettingarbitrage.analytics.grpc;
+
+import com.bettingarbitrage.analytics.grpc.v1.MarketQuote;
+import com.bettingarbitrage.analytics.grpc.v1.OpportunityUpdate;
+import com.bettingarbitrage.analytics.grpc.v1.QuoteStreamGrpc;
+import com.bettingarbitrage.analytics.grpc.v1.QuoteUpdate;
+import com.bettingarbitrage.analytics.model.AnalyzeRequest;
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.StakeResponse;
+import com.bettingarbitrage.analytics.service.ArbitrageService;
+import com.bettingarbitrage.analytics.validation.SnapshotValidator;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bidirectional quote stream. Each call keeps its own book of the latest quote per event, market, runner and
+ * provider; every inbound {@link QuoteUpdate} re-analyses only the events it touched and answers with one
+ * {@link OpportunityUpdate} per event/market whose opportunity appeared, changed or closed. An opportunity has
+ * changed when its priced content (bankroll, implied-probability sum or any stake) differs from the version last
+ * sent; a fresh Monte Carlo run over the same prices is not a change.
+ *
+ * <p>Quotes go through {@link SnapshotValidator} like {@code /api/analyze} snapshots: in strict mode an invalid
+ * quote fails the stream with {@code INVALID_ARGUMENT}, in lenient mode it is dropped.
+ *
+ * <p>Inbound messages are requested one at a time and the next one is only requested once the outbound side is
+ * ready again, so a slow consumer throttles its producer instead of buffering unbounded updates.
+ */
+@Component
+public class QuoteStreamService extends QuoteStreamGrpc.QuoteStreamImplBase {
+
+    private static final Logger log = LoggerFactory.getLogger(QuoteStreamService.class);
+
+    private final ArbitrageService arbitrageService;
+    private final SnapshotValidator snapshotValidator;
+
+    public QuoteStreamService(ArbitrageService arbitrageService, SnapshotValidator snapshotValidator) {
+        this.arbitrageService = arbitrageService;
+        this.snapshotValidator = snapshotValidator;
+    }
+
+    @Override
+    public StreamObserver<QuoteUpdate> stream(StreamObserver<OpportunityUpdate> responseObserver) {
+        ServerCallStreamObserver<OpportunityUpdate> serverObserver =
+            (ServerCallStreamObserver<OpportunityUpdate>) responseObserver;
+        serverObserver.disableAutoRequest();
+        Session session = new Session(serverObserver);
+        serverObserver.setOnReadyHandler(session::onReady);
+        serverObserver.request(1);
+        return session;
+    }
+
+    private final class Session implements StreamObserver<QuoteUpdate> {
+
+        private final ServerCallStreamObserver<OpportunityUpdate> outbound;
+        private final Map<String, Map<String, MarketSnapshot>> book = new HashMap<>();
+        private final Map<String, Map<String, Sent>> openGroups = new HashMap<>();
+        private double bankroll;
+        private double minimumEdge;
+        private boolean awaitingReady;
+
+        Session(ServerCallStreamObserver<OpportunityUpdate> outbound) {
+            this.outbound = outbound;
+        }
+
+        @Override
+        public void onNext(QuoteUpdate update) {
+            try {
+                applySettings(update);
+                Set<String> touched = applyQuotes(update.getQuotesList());
+                if (!touched.isEmpty()) {
+                    publish(touched);
+                }
+            } catch (ResponseStatusException ex) {
+                log.warn("Quote stream update rejected: {}", ex.getReason());
+                outbound.onError(Status.INVALID_ARGUMENT
+                    .withDescription(ex.getReason())
+                    .asRuntimeException());
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Quote stream update failed", ex);
+                outbound.onError(Status.INVALID_ARGUMENT
+                    .withDescription(ex.getMessage())
+                    .asRuntimeException());
+                return;
+            }
+            requestNext();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.debug("Quote stream cancelled by client", t);
+        }
+
+        @Override
+        public void onCompleted() {
+            outbound.onCompleted();
+        }
+
+        synchronized void onReady() {
+            if (awaitingReady && outbound.isReady()) {
+                awaitingReady = false;
+                outbound.request(1);
+            }
+        }
+
+        private synchronized void requestNext() {
+            if (outbound.isReady()) {
+                outbound.request(1);
+            } else {
+                awaitingReady = true;
+            }
+        }
+
+        private void applySettings(QuoteUpdate update) {
+            if (update.hasBankroll()) {
+                bankroll = update.getBankroll();
+            }
+            if (update.hasMinimumEdge()) {
+                minimumEdge = update.getMinimumEdge();
+            }
+        }
+
+        private Set<String> applyQuotes(List<MarketQuote> quotes) {
+            List<MarketSnapshot> updates = new ArrayList<>(quotes.size());
+            List<String> rejected = new ArrayList<>();
+            for (int i = 0; i < quotes.size(); i++) {
+                MarketQuote quote = quotes.get(i);
+                if (quote.getSuspended()) {
+                    continue;
+                }
+                if (quote.getOddsDecimal() > 1.0) {
+                    updates.add(ProtoMapper.toSnapshot(quote));
+                } else {
+                    rejected.add("quotes[" + i + "].oddsDecimal: must be greater than 1");
+                }
+            }
+            Set<MarketSnapshot> accepted = Collections.newSetFromMap(new IdentityHashMap<>());
+            accepted.addAll(snapshotValidator.validate(updates, rejected).getAccepted());
+
+            // Applied in message order so that an update and a suspension of the same quote keep their sequence.
+            Set<String> touched = new LinkedHashSet<>();
+            int next = 0;
+            for (MarketQuote quote : quotes) {
+                String eventId = quote.getEventId();
+                if (quote.getSuspended()) {
+                    Map<String, MarketSnapshot> event = book.get(eventId);
+                    String key = quoteKey(quote.getMarketName(), quote.getRunnerId(), quote.getProviderId());
+                    if (event != null && event.remove(key) != null) {
+                        touched.add(eventId);
+                        if (event.isEmpty()) {
+                            book.remove(eventId);
+                        }
+                    }
+                    continue;
+                }
+                if (!(quote.getOddsDecimal() > 1.0)) {
+                    continue;
+                }
+                MarketSnapshot snapshot = updates.get(next++);
+                if (accepted.contains(snapshot)) {
+                    String key = quoteKey(
+                        snapshot.getMarketName(), snapshot.getRunner().getId(), snapshot.getProvider().getId());
+                    book.computeIfAbsent(eventId, k -> new HashMap<>()).put(key, snapshot);
+                    touched.add(eventId);
+                }
+            }
+            return touched;
+        }
+
+        private void publish(Set<String> touchedEvents) {
+            // Whole events are re-analysed so cross-market combinations see every market of the event.
+            List<MarketSnapshot> markets = new ArrayList<>();
+            for (String eventId : touchedEvents) {
+                Map<String, MarketSnapshot> event = book.get(eventId);
+                if (event != null) {
+                    markets.addAll(event.values());
+                }
+            }
+
+            Map<String, Set<String>> stillOpen = new HashMap<>();
+            if (!markets.isEmpty()) {
+                AnalyzeRequest request = new AnalyzeRequest();
+                request.setSnapshotTime(Instant.now());
+                request.setBankroll(bankroll);
+                request.setMinimumEdge(minimumEdge);
+                request.setMarkets(markets);
+                for (OpportunityResponse opportunity : arbitrageService.analyzeSnapshot(request).getOpportunities()) {
+                    String marketKey = opportunity.getMarketName().toLowerCase(Locale.ROOT);
+                    stillOpen.computeIfAbsent(opportunity.getEventId(), k -> new HashSet<>()).add(marketKey);
+                    String signature = signature(opportunity);
+                    Sent previous = openGroups.computeIfAbsent(opportunity.getEventId(), k -> new HashMap<>())
+                        .put(marketKey, new Sent(opportunity.getMarketName(), signature));
+                    if (previous != null && previous.signature().equals(signature)) {
+                        continue;
+                    }
+                    outbound.onNext(OpportunityUpdate.newBuilder()
+                        .setEventId(opportunity.getEventId())
+                        .setMarketName(opportunity.getMarketName())
+                        .setOpportunity(ProtoMapper.toProto(opportunity))
+                        .build());
+                }
+            }
+
+            for (String eventId : touchedEvents) {
+                Map<String, Sent> open = openGroups.get(eventId);
+                if (open == null) {
+                    continue;
+                }
+                Set<String> current = stillOpen.getOrDefault(eventId, Set.of());
+                open.entrySet().removeIf(entry -> {
+                    if (current.contains(entry.getKey())) {
+                        return false;
+                    }
+                    outbound.onNext(OpportunityUpdate.newBuilder()
+                        .setEventId(eventId)
+                        .setMarketName(entry.getValue().marketName())
+                        .setClosed(true)
+                        .build());
+                    return true;
+                });
+                if (open.isEmpty()) {
+                    openGroups.remove(eventId);
+                }
+            }
+        }
+    }
+
+    private static String quoteKey(String marketName, String runnerId, String providerId) {
+        return marketName.toLowerCase(Locale.ROOT) + "::" + runnerId + "::" + providerId;
+    }
+
+    private static String signature(OpportunityResponse opportunity) {
+        StringBuilder signature = new StringBuilder(96)
+            .append(opportunity.getBankroll()).append('|')
+            .append(opportunity.getSumImpliedProbability());
+        for (StakeResponse stake : opportunity.getStakes()) {
+            signature.append('|')
+                .append(stake.getRunner()).append('@')
+                .append(stake.getProviderId()).append(':')
+                .append(stake.getOdds()).append(':')
+                .append(stake.getStakeAmount());
+        }
+        return signature.toString();
+    }
+
+    /**
+     * The market name last reported for an open event/market and the priced content it was reported with.
+     */
+    private record Sent(String marketName, String signature) {
+    }
+}
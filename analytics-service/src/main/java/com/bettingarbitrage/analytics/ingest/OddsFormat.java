@@ -0,0 +1,98 @@
+package com.bettingarbitrage.analytics.ingest;
+
+import java.util.Locale;
+
+/**
+ * Price formats accepted from providers, with the same conversion rules and error messages as
+ * {@code convertOddsToDecimal} in {@code server/workers/ingestOdds.ts}.
+ */
+public enum OddsFormat {
+
+    DECIMAL {
+        @Override
+        double toDecimal(double price, String raw) {
+            if (!Double.isFinite(price) || price <= 1) {
+                throw new IllegalArgumentException("Invalid decimal odds: " + raw);
+            }
+            return price;
+        }
+    },
+
+    AMERICAN {
+        @Override
+        double toDecimal(double price, String raw) {
+            if (!Double.isFinite(price) || Math.abs(price) < 100) {
+                throw new IllegalArgumentException("Invalid American odds: " + raw);
+            }
+            return price > 0 ? price / 100 + 1 : 100 / Math.abs(price) + 1;
+        }
+    },
+
+    FRACTIONAL {
+        @Override
+        double toDecimal(double price, String raw) {
+            if (!Double.isFinite(price) || price <= 0) {
+                throw new IllegalArgumentException("Invalid fractional odds: " + raw);
+            }
+            return price + 1;
+        }
+
+        @Override
+        double toDecimal(String price) {
+            int slash = price.indexOf('/');
+            double numerator = slash < 0 ? parseNumber(price) : parseNumber(price.substring(0, slash));
+            double denominator = slash < 0 ? Double.NaN : parseNumber(price.substring(slash + 1));
+            // Unlike numeric prices, string fractions are not range-checked upstream; anything at or below evens
+            // would still fail the market schema's implied-probability bound, so it is rejected here.
+            double decimal = numerator / denominator + 1;
+            if (!Double.isFinite(numerator) || !Double.isFinite(denominator) || denominator == 0 || !(decimal > 1)) {
+                throw new IllegalArgumentException("Invalid fractional odds: " + price);
+            }
+            return decimal;
+        }
+    };
+
+    abstract double toDecimal(double price, String raw);
+
+    /**
+     * Converts a numeric JSON price.
+     */
+    double toDecimal(double price) {
+        return toDecimal(price, formatRaw(price));
+    }
+
+    /**
+     * Converts a string JSON price; numbers in strings follow JavaScript {@code Number()} semantics.
+     */
+    double toDecimal(String price) {
+        return toDecimal(parseNumber(price), price);
+    }
+
+    public static OddsFormat fromJson(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unsupported odds format: " + value);
+        }
+    }
+
+    private static double parseNumber(String value) {
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            return 0;
+        }
+        char last = trimmed.charAt(trimmed.length() - 1);
+        if (Character.isLetter(last) && !trimmed.endsWith("Infinity")) {
+            return Double.NaN; // Java accepts type suffixes such as "2d"; Number() does not
+        }
+        try {
+            return Double.parseDouble(trimmed);
+        } catch (NumberFormatException ex) {
+            return Double.NaN;
+        }
+    }
+
+    private static String formatRaw(double price) {
+        return price == Math.rint(price) && Double.isFinite(price) ? Long.toString((long) price) : Double.toString(price);
+    }
+}
@@ -0,0 +1,463 @@
+package com.bettingarbitrage.analytics.ingest;
+
+import com.bettingarbitrage.analytics.model.AnalyzeRequest;
+import com.bettingarbitrage.analytics.model.CanonicalEvent;
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import com.bettingarbitrage.analytics.model.ParameterSet;
+import com.bettingarbitrage.analytics.model.PortfolioSettings;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads raw provider odds payloads (the {@code providerOddsPayloadSchema} shape from
+ * {@code server/workers/ingestOdds.ts}) straight into {@link MarketSnapshot}s in one streaming pass, without
+ * binding the payload tree first. Prices are converted with {@link OddsFormat}; events are canonicalised and
+ * quotes de-duplicated with the same rules as {@code inferCanonicalEvent} and {@code dedupeMarkets}.
+ *
+ * <p>Request shape: the analysis settings of {@link AnalyzeRequest} (without {@code markets}), an optional
+ * {@code canonicalEvents} list and {@code providers[]} of {@code {provider, oddsFormat, payload}}. A payload
+ * that arrives before its entry's {@code provider} and {@code oddsFormat} is buffered until the entry ends.
+ */
+@Component
+public class ProviderPayloadReader {
+
+    private static final TypeReference<List<ParameterSet>> PARAMETER_SETS = new TypeReference<>() { };
+    private static final TypeReference<List<CanonicalEvent>> CANONICAL_EVENTS = new TypeReference<>() { };
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public ProviderPayloadReader(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    /**
+     * Reads one ingest request. Quotes whose price cannot be converted are not returned; one message per such
+     * quote is reported in {@link Result#getRejected()} for the snapshot validator to apply its mode to.
+     */
+    public Result read(InputStream in) throws IOException {
+        AnalyzeRequest request = new AnalyzeRequest();
+        List<CanonicalEvent> canonicalEvents = List.of();
+        Batch batch = new Batch(Instant.now().toString());
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw badRequest("Ingest payload must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                switch (field) {
+                    case "snapshotTime" -> request.setSnapshotTime(objectMapper.readValue(parser, Instant.class));
+                    case "bankroll" -> request.setBankroll(parser.getValueAsDouble());
+                    case "minimumEdge" -> request.setMinimumEdge(parser.getValueAsDouble());
+                    case "deadlineMs" -> request.setDeadlineMs(parser.getValueAsLong());
+                    case "parameterSets" -> request.setParameterSets(objectMapper.readValue(parser, PARAMETER_SETS));
+                    case "portfolio" -> request.setPortfolio(objectMapper.readValue(parser, PortfolioSettings.class));
+                    case "canonicalEvents" -> canonicalEvents = objectMapper.readValue(parser, CANONICAL_EVENTS);
+                    case "providers" -> readProviders(parser, batch);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        if (batch.events.isEmpty()) {
+            throw badRequest("providers: must contain at least one event");
+        }
+        if (request.getSnapshotTime() == null) {
+            request.setSnapshotTime(Instant.now());
+        }
+        request.setMarkets(canonicalise(batch, canonicalEvents));
+        checkSettings(request);
+        return new Result(request, batch.rejected);
+    }
+
+    private void readProviders(JsonParser parser, Batch batch) throws IOException {
+        expect(parser, JsonToken.START_ARRAY, "providers");
+        int index = 0;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String path = "providers[" + index++ + "]";
+            MarketSnapshot.Provider provider = null;
+            OddsFormat format = null;
+            TokenBuffer deferred = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "provider" -> provider = objectMapper.readValue(parser, MarketSnapshot.Provider.class);
+                    case "oddsFormat" -> format = parseFormat(parser.getText(), path);
+                    case "payload" -> {
+                        if (provider != null && format != null) {
+                            readPayload(parser, new Source(provider, format, path + ".payload"), batch);
+                        } else {
+                            deferred = new TokenBuffer(parser);
+                            deferred.copyCurrentStructure(parser);
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            if (provider == null) {
+                throw badRequest(path + ".provider: must not be null");
+            }
+            if (deferred != null) {
+                try (JsonParser replay = deferred.asParser(parser.getCodec())) {
+                    replay.nextToken();
+                    // Same default as normalizeMarkets when no format is configured.
+                    readPayload(replay, new Source(provider, format != null ? format : OddsFormat.DECIMAL, path + ".payload"), batch);
+                }
+            }
+        }
+    }
+
+    private void readPayload(JsonParser parser, Source source, Batch batch) throws IOException {
+        expect(parser, JsonToken.START_OBJECT, source.path);
+        // generatedAt may follow the events, so quotes share a holder that is filled in once the payload ends.
+        Stamp stamp = new Stamp(batch.requestTime);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (field.equals("events")) {
+                expect(parser, JsonToken.START_ARRAY, source.path + ".events");
+                int index = 0;
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    batch.events.add(readEvent(parser, source, stamp, batch, source.path + ".events[" + index++ + "]"));
+                }
+            } else if (field.equals("generatedAt") && parser.currentToken() == JsonToken.VALUE_STRING) {
+                stamp.value = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private PendingEvent readEvent(JsonParser parser, Source source, Stamp stamp, Batch batch, String path) throws IOException {
+        PendingEvent event = new PendingEvent(source.provider, stamp);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> event.id = parser.getValueAsString();
+                case "name" -> event.name = parser.getValueAsString();
+                case "startTime" -> event.startTime = parser.getValueAsString();
+                case "sport" -> event.sport = parser.getValueAsString();
+                case "league" -> event.league = parser.getValueAsString();
+                case "homeTeam" -> event.homeTeam = parser.getValueAsString();
+                case "awayTeam" -> event.awayTeam = parser.getValueAsString();
+                case "markets" -> {
+                    expect(parser, JsonToken.START_ARRAY, path + ".markets");
+                    int index = 0;
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        readMarket(parser, source, event, batch, path + ".markets[" + index++ + "]");
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (event.id == null || event.id.isBlank()) {
+            // Without an id the event can be neither canonicalised nor grouped; its quotes are rejected.
+            for (int i = 0; i < event.quotes.size(); i++) {
+                batch.rejected.add(path + ".id: must not be blank");
+            }
+            event.quotes.clear();
+        }
+        return event;
+    }
+
+    private void readMarket(JsonParser parser, Source source, PendingEvent event, Batch batch, String path) throws IOException {
+        String name = null;
+        String type = null;
+        Double line = null;
+        int first = event.quotes.size();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "name" -> name = parser.getValueAsString();
+                case "type" -> type = parser.getValueAsString();
+                case "line" -> line = value.isNumeric() ? parser.getDoubleValue() : null;
+                case "runners" -> {
+                    expect(parser, JsonToken.START_ARRAY, path + ".runners");
+                    int index = 0;
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        MarketSnapshot quote = readRunner(parser, source, batch, path + ".runners[" + index++ + "]");
+                        if (quote != null) {
+                            event.quotes.add(quote);
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        for (int i = first; i < event.quotes.size(); i++) {
+            MarketSnapshot quote = event.quotes.get(i);
+            quote.setMarketName(name);
+            quote.setMarketType(type != null ? type : "other");
+            quote.setLine(line);
+        }
+    }
+
+    private MarketSnapshot readRunner(JsonParser parser, Source source, Batch batch, String path) throws IOException {
+        MarketSnapshot.Runner runner = new MarketSnapshot.Runner();
+        double odds = Double.NaN;
+        String error = path + ".price: must not be null";
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> runner.setId(parser.getValueAsString());
+                case "name" -> runner.setName(parser.getValueAsString());
+                case "price" -> {
+                    error = null;
+                    try {
+                        if (value.isNumeric()) {
+                            odds = source.format.toDecimal(parser.getDoubleValue());
+                        } else if (value == JsonToken.VALUE_STRING) {
+                            odds = source.format.toDecimal(parser.getText());
+                        } else {
+                            error = path + ".price: must be a number or string";
+                            parser.skipChildren();
+                        }
+                    } catch (IllegalArgumentException ex) {
+                        error = path + ".price: " + ex.getMessage();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (error != null) {
+            batch.rejected.add(error);
+            return null;
+        }
+
+        MarketSnapshot quote = new MarketSnapshot();
+        quote.setRunner(runner);
+        quote.setProvider(source.provider);
+        quote.setOddsDecimal(odds);
+        quote.setImpliedProbability(Math.round(1_000_000 / odds) / 1_000_000d);
+        return quote;
+    }
+
+    /**
+     * Resolves every event against {@code canonicalEvents} (direct id match, then the first candidate with the
+     * same name or the same home and away teams, case-insensitively; otherwise {@code <provider slug>-<event id>})
+     * and keeps one quote per event/market/runner/provider, preferring the latest {@code generatedAt}.
+     */
+    private List<MarketSnapshot> canonicalise(Batch batch, List<CanonicalEvent> canonicalEvents) {
+        CanonicalIndex index = new CanonicalIndex(canonicalEvents);
+        Map<String, MarketSnapshot> latest = new LinkedHashMap<>();
+        Map<String, String> stamps = new HashMap<>();
+        for (PendingEvent event : batch.events) {
+            CanonicalEvent canonical = index.resolve(event);
+            Instant startTime = parseStartTime(canonical.getStartTime());
+            for (MarketSnapshot quote : event.quotes) {
+                quote.setEventId(canonical.getId());
+                quote.setEventName(canonical.getEventName());
+                quote.setSport(canonical.getSport());
+                quote.setLeague(canonical.getLeague());
+                quote.setStartTime(startTime);
+
+                String key = quote.getEventId() + ":" + quote.getMarketName() + ":"
+                    + quote.getRunner().getId() + ":" + quote.getProvider().getId();
+                String stamp = event.stamp.value;
+                String existing = stamps.get(key);
+                // ISO-8601 strings compared as strings, as the Node worker does.
+                if (existing == null || existing.compareTo(stamp) < 0) {
+                    latest.put(key, quote);
+                    stamps.put(key, stamp);
+                }
+            }
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    /**
+     * Start times only steer re-analysis scheduling, so one that is not ISO-8601 is dropped rather than rejected.
+     */
+    private static Instant parseStartTime(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+    private void checkSettings(AnalyzeRequest request) {
+        Set<ConstraintViolation<AnalyzeRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder("Invalid ingest settings: ");
+        boolean first = true;
+        for (ConstraintViolation<AnalyzeRequest> violation : violations) {
+            // Quotes are checked by SnapshotValidator; an empty list after conversion failures is left to it too.
+            if (violation.getPropertyPath().toString().equals("markets")) {
+                continue;
+            }
+            if (!first) {
+                message.append("; ");
+            }
+            message.append(violation.getPropertyPath()).append(": ").append(violation.getMessage());
+            first = false;
+        }
+        if (!first) {
+            throw badRequest(message.toString());
+        }
+    }
+
+    private static OddsFormat parseFormat(String value, String path) {
+        try {
+            return OddsFormat.fromJson(value);
+        } catch (IllegalArgumentException ex) {
+            throw badRequest(path + ".oddsFormat: " + ex.getMessage());
+        }
+    }
+
+    private static void expect(JsonParser parser, JsonToken token, String path) {
+        if (parser.currentToken() != token) {
+            throw badRequest(path + ": expected " + (token == JsonToken.START_ARRAY ? "an array" : "an object"));
+        }
+    }
+
+    private static ResponseStatusException badRequest(String message) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
+    }
+
+    public static final class Result {
+        private final AnalyzeRequest request;
+        private final List<String> rejected;
+
+        Result(AnalyzeRequest request, List<String> rejected) {
+            this.request = request;
+            this.rejected = rejected;
+        }
+
+        public AnalyzeRequest getRequest() {
+            return request;
+        }
+
+        public List<String> getRejected() {
+            return rejected;
+        }
+    }
+
+    private static final class Batch {
+        private final String requestTime;
+        private final List<PendingEvent> events = new ArrayList<>();
+        private final List<String> rejected = new ArrayList<>();
+
+        Batch(String requestTime) {
+            this.requestTime = requestTime;
+        }
+    }
+
+    private record Source(MarketSnapshot.Provider provider, OddsFormat format, String path) {
+    }
+
+    private static final class Stamp {
+        private String value;
+
+        Stamp(String value) {
+            this.value = value;
+        }
+    }
+
+    private static final class PendingEvent {
+        private final MarketSnapshot.Provider provider;
+        private final Stamp stamp;
+        private final List<MarketSnapshot> quotes = new ArrayList<>();
+        private String id;
+        private String name;
+        private String startTime;
+        private String sport;
+        private String league;
+        private String homeTeam;
+        private String awayTeam;
+
+        PendingEvent(MarketSnapshot.Provider provider, Stamp stamp) {
+            this.provider = provider;
+            this.stamp = stamp;
+        }
+    }
+
+    private static final class CanonicalIndex {
+        private final List<CanonicalEvent> events;
+        private final Map<String, Integer> byId = new HashMap<>();
+        private final Map<String, Integer> byName = new HashMap<>();
+        private final Map<String, Integer> byTeams = new HashMap<>();
+
+        CanonicalIndex(List<CanonicalEvent> events) {
+            this.events = events;
+            for (int i = 0; i < events.size(); i++) {
+                CanonicalEvent event = events.get(i);
+                if (event.getId() != null) {
+                    byId.putIfAbsent(event.getId(), i);
+                }
+                if (event.getEventName() != null) {
+                    byName.putIfAbsent(event.getEventName().toLowerCase(Locale.ROOT), i);
+                }
+                if (event.getHomeTeam() != null && event.getAwayTeam() != null) {
+                    byTeams.putIfAbsent(teamsKey(event.getHomeTeam(), event.getAwayTeam()), i);
+                }
+            }
+        }
+
+        CanonicalEvent resolve(PendingEvent event) {
+            Integer direct = event.id == null ? null : byId.get(event.id);
+            if (direct != null) {
+                return events.get(direct);
+            }
+            // First candidate in list order matching either way, like Array.find over both conditions.
+            Integer name = event.name == null ? null : byName.get(event.name.toLowerCase(Locale.ROOT));
+            Integer teams = event.homeTeam != null && event.awayTeam != null
+                ? byTeams.get(teamsKey(event.homeTeam, event.awayTeam))
+                : null;
+            if (name != null || teams != null) {
+                return events.get(name == null ? teams : teams == null ? name : Math.min(name, teams));
+            }
+
+            String slug = event.provider.getSlug() != null ? event.provider.getSlug() : event.provider.getId();
+            CanonicalEvent inferred = new CanonicalEvent();
+            inferred.setId(slug + "-" + event.id);
+            inferred.setEventName(event.name);
+            inferred.setStartTime(event.startTime);
+            inferred.setSport(event.sport != null && !event.sport.isEmpty() ? event.sport : "unknown");
+            inferred.setLeague(event.league);
+            inferred.setHomeTeam(event.homeTeam);
+            inferred.setAwayTeam(event.awayTeam);
+            return inferred;
+        }
+
+        private static String teamsKey(String home, String away) {
+            return home.toLowerCase(Locale.ROOT) + '\u0000' + away.toLowerCase(Locale.ROOT);
+        }
+    }
+}
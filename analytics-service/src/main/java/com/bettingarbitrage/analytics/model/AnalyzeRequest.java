@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 import java.time.Instant;
 import java.util.List;
@@ -19,10 +20,23 @@ public class AnalyzeRequest {
     @Min(0)
     private double minimumEdge;
 
+    // Quote-level constraints are checked by SnapshotValidator rather than cascaded here.
     @NotEmpty
-    @Valid
     private List<MarketSnapshot> markets;
 
+    // Optional sweep: each set is evaluated against the same snapshot reduction, in the same pass as the request.
+    @Valid
+    @Size(max = 32)
+    private List<ParameterSet> parameterSets;
+
+    // Optional: split one bankroll across all detected opportunities.
+    @Valid
+    private PortfolioSettings portfolio;
+
+    // Optional time budget in milliseconds from receipt; the X-Analytics-Deadline-Ms header takes precedence.
+    @Min(0)
+    private Long deadlineMs;
+
     public Instant getSnapshotTime() {
         return snapshotTime;
     }
@@ -54,4 +68,28 @@ public class AnalyzeRequest {
     public void setMarkets(List<MarketSnapshot> markets) {
         this.markets = markets;
     }
+
+    public List<ParameterSet> getParameterSets() {
+        return parameterSets;
+    }
+
+    public void setParameterSets(List<ParameterSet> parameterSets) {
+        this.parameterSets = parameterSets;
+    }
+
+    public PortfolioSettings getPortfolio() {
+        return portfolio;
+    }
+
+    public void setPortfolio(PortfolioSettings portfolio) {
+        this.portfolio = portfolio;
+    }
+
+    public Long getDeadlineMs() {
+        return deadlineMs;
+    }
+
+    public void setDeadlineMs(Long deadlineMs) {
+        this.deadlineMs = deadlineMs;
+    }
 }
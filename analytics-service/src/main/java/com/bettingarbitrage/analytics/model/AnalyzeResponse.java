@@ -1,10 +1,21 @@
 package com.bettingarbitrage.analytics.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class AnalyzeResponse {
 
     private List<OpportunityResponse> opportunities;
+    private Integer droppedQuotes;
+    private List<SweepResult> sweeps;
+    private PortfolioAllocation portfolio;
+    // Set only when a deadline cut the analysis short.
+    private Boolean partial;
+    private Integer skippedGroups;
+    private Integer skippedSimulations;
+    private Integer shortenedSimulations;
 
     public AnalyzeResponse() {
     }
@@ -20,4 +31,60 @@ public class AnalyzeResponse {
     public void setOpportunities(List<OpportunityResponse> opportunities) {
         this.opportunities = opportunities;
     }
+
+    public Integer getDroppedQuotes() {
+        return droppedQuotes;
+    }
+
+    public void setDroppedQuotes(Integer droppedQuotes) {
+        this.droppedQuotes = droppedQuotes;
+    }
+
+    public List<SweepResult> getSweeps() {
+        return sweeps;
+    }
+
+    public void setSweeps(List<SweepResult> sweeps) {
+        this.sweeps = sweeps;
+    }
+
+    public PortfolioAllocation getPortfolio() {
+        return portfolio;
+    }
+
+    public void setPortfolio(PortfolioAllocation portfolio) {
+        this.portfolio = portfolio;
+    }
+
+    public Boolean getPartial() {
+        return partial;
+    }
+
+    public void setPartial(Boolean partial) {
+        this.partial = partial;
+    }
+
+    public Integer getSkippedGroups() {
+        return skippedGroups;
+    }
+
+    public void setSkippedGroups(Integer skippedGroups) {
+        this.skippedGroups = skippedGroups;
+    }
+
+    public Integer getSkippedSimulations() {
+        return skippedSimulations;
+    }
+
+    public void setSkippedSimulations(Integer skippedSimulations) {
+        this.skippedSimulations = skippedSimulations;
+    }
+
+    public Integer getShortenedSimulations() {
+        return shortenedSimulations;
+    }
+
+    public void setShortenedSimulations(Integer shortenedSimulations) {
+        this.shortenedSimulations = shortenedSimulations;
+    }
 }
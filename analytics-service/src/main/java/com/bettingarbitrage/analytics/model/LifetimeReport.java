@@ -0,0 +1,99 @@
+package com.bettingarbitrage.analytics.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LifetimeReport {
+    private int active;
+    private int capacity;
+    private long closed;
+    private long evicted;
+    private int lifetimeSamples;
+    private Long lifetimeP50Millis;
+    private Long lifetimeP90Millis;
+    private Long lifetimeP99Millis;
+    private Long lifetimeMaxMillis;
+    private List<TrackedOpportunity> open;
+
+    public int getActive() {
+        return active;
+    }
+
+    public void setActive(int active) {
+        this.active = active;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public long getClosed() {
+        return closed;
+    }
+
+    public void setClosed(long closed) {
+        this.closed = closed;
+    }
+
+    public long getEvicted() {
+        return evicted;
+    }
+
+    public void setEvicted(long evicted) {
+        this.evicted = evicted;
+    }
+
+    public int getLifetimeSamples() {
+        return lifetimeSamples;
+    }
+
+    public void setLifetimeSamples(int lifetimeSamples) {
+        this.lifetimeSamples = lifetimeSamples;
+    }
+
+    public Long getLifetimeP50Millis() {
+        return lifetimeP50Millis;
+    }
+
+    public void setLifetimeP50Millis(Long lifetimeP50Millis) {
+        this.lifetimeP50Millis = lifetimeP50Millis;
+    }
+
+    public Long getLifetimeP90Millis() {
+        return lifetimeP90Millis;
+    }
+
+    public void setLifetimeP90Millis(Long lifetimeP90Millis) {
+        this.lifetimeP90Millis = lifetimeP90Millis;
+    }
+
+    public Long getLifetimeP99Millis() {
+        return lifetimeP99Millis;
+    }
+
+    public void setLifetimeP99Millis(Long lifetimeP99Millis) {
+        this.lifetimeP99Millis = lifetimeP99Millis;
+    }
+
+    public Long getLifetimeMaxMillis() {
+        return lifetimeMaxMillis;
+    }
+
+    public void setLifetimeMaxMillis(Long lifetimeMaxMillis) {
+        this.lifetimeMaxMillis = lifetimeMaxMillis;
+    }
+
+    public List<TrackedOpportunity> getOpen() {
+        return open;
+    }
+
+    public void setOpen(List<TrackedOpportunity> open) {
+        this.open = open;
+    }
+}
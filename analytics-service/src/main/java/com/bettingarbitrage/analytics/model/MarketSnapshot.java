@@ -4,6 +4,8 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+import java.time.Instant;
+
 public class MarketSnapshot {
 
     @NotBlank
@@ -19,6 +21,12 @@ public class MarketSnapshot {
 
     private String league;
 
+    private String marketType;
+
+    private Double line;
+
+    private Instant startTime;
+
     @NotNull
     @Valid
     private Runner runner;
@@ -73,6 +81,30 @@ public class MarketSnapshot {
         this.league = league;
     }
 
+    public String getMarketType() {
+        return marketType;
+    }
+
+    public void setMarketType(String marketType) {
+        this.marketType = marketType;
+    }
+
+    public Double getLine() {
+        return line;
+    }
+
+    public void setLine(Double line) {
+        this.line = line;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
     public Runner getRunner() {
         return runner;
     }
@@ -20,6 +20,7 @@ public class OpportunityResponse {
     private List<StakeResponse> stakes;
     private RiskMetrics metrics;
     private SimulationSummary simulation;
+    private Boolean crossMarket;
 
     public String getEventId() {
         return eventId;
@@ -116,4 +117,12 @@ public class OpportunityResponse {
     public void setSimulation(SimulationSummary simulation) {
         this.simulation = simulation;
     }
+
+    public Boolean getCrossMarket() {
+        return crossMarket;
+    }
+
+    public void setCrossMarket(Boolean crossMarket) {
+        this.crossMarket = crossMarket;
+    }
 }
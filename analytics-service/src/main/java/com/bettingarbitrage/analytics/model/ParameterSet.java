@@ -0,0 +1,51 @@
+package com.bettingarbitrage.analytics.model;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+public class ParameterSet {
+
+    private String id;
+
+    @Min(0)
+    private double bankroll;
+
+    @Min(0)
+    private double minimumEdge;
+
+    @Min(1)
+    @Max(100_000)
+    private Integer trials;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public double getBankroll() {
+        return bankroll;
+    }
+
+    public void setBankroll(double bankroll) {
+        this.bankroll = bankroll;
+    }
+
+    public double getMinimumEdge() {
+        return minimumEdge;
+    }
+
+    public void setMinimumEdge(double minimumEdge) {
+        this.minimumEdge = minimumEdge;
+    }
+
+    public Integer getTrials() {
+        return trials;
+    }
+
+    public void setTrials(Integer trials) {
+        this.trials = trials;
+    }
+}
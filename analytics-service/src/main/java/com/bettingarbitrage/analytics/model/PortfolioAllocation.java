@@ -0,0 +1,61 @@
+package com.bettingarbitrage.analytics.model;
+
+import java.util.List;
+import java.util.Map;
+
+public class PortfolioAllocation {
+    private double bankroll;
+    private double allocated;
+    private double guaranteedProfit;
+    private int iterations;
+    private Map<String, Double> providerExposure;
+    private List<PositionAllocation> positions;
+
+    public double getBankroll() {
+        return bankroll;
+    }
+
+    public void setBankroll(double bankroll) {
+        this.bankroll = bankroll;
+    }
+
+    public double getAllocated() {
+        return allocated;
+    }
+
+    public void setAllocated(double allocated) {
+        this.allocated = allocated;
+    }
+
+    public double getGuaranteedProfit() {
+        return guaranteedProfit;
+    }
+
+    public void setGuaranteedProfit(double guaranteedProfit) {
+        this.guaranteedProfit = guaranteedProfit;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public Map<String, Double> getProviderExposure() {
+        return providerExposure;
+    }
+
+    public void setProviderExposure(Map<String, Double> providerExposure) {
+        this.providerExposure = providerExposure;
+    }
+
+    public List<PositionAllocation> getPositions() {
+        return positions;
+    }
+
+    public void setPositions(List<PositionAllocation> positions) {
+        this.positions = positions;
+    }
+}
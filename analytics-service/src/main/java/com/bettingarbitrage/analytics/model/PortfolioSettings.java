@@ -0,0 +1,57 @@
+package com.bettingarbitrage.analytics.model;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+
+import java.util.Map;
+
+public class PortfolioSettings {
+
+    // Defaults to the request bankroll.
+    @Min(0)
+    private Double bankroll;
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double maxOpportunityFraction = 0.25;
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private double maxProviderExposure = 0.5;
+
+    // Absolute exposure limits per provider id; override maxProviderExposure for those providers.
+    private Map<String, Double> providerLimits;
+
+    public Double getBankroll() {
+        return bankroll;
+    }
+
+    public void setBankroll(Double bankroll) {
+        this.bankroll = bankroll;
+    }
+
+    public double getMaxOpportunityFraction() {
+        return maxOpportunityFraction;
+    }
+
+    public void setMaxOpportunityFraction(double maxOpportunityFraction) {
+        this.maxOpportunityFraction = maxOpportunityFraction;
+    }
+
+    public double getMaxProviderExposure() {
+        return maxProviderExposure;
+    }
+
+    public void setMaxProviderExposure(double maxProviderExposure) {
+        this.maxProviderExposure = maxProviderExposure;
+    }
+
+    public Map<String, Double> getProviderLimits() {
+        return providerLimits;
+    }
+
+    public void setProviderLimits(Map<String, Double> providerLimits) {
+        this.providerLimits = providerLimits;
+    }
+}
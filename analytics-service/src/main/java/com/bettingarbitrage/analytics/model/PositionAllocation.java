@@ -0,0 +1,51 @@
+package com.bettingarbitrage.analytics.model;
+
+import java.util.List;
+
+public class PositionAllocation {
+    private String eventId;
+    private String marketName;
+    private double guaranteedProfitFraction;
+    private double amount;
+    private List<StakeResponse> stakes;
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getMarketName() {
+        return marketName;
+    }
+
+    public void setMarketName(String marketName) {
+        this.marketName = marketName;
+    }
+
+    public double getGuaranteedProfitFraction() {
+        return guaranteedProfitFraction;
+    }
+
+    public void setGuaranteedProfitFraction(double guaranteedProfitFraction) {
+        this.guaranteedProfitFraction = guaranteedProfitFraction;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+
+    public List<StakeResponse> getStakes() {
+        return stakes;
+    }
+
+    public void setStakes(List<StakeResponse> stakes) {
+        this.stakes = stakes;
+    }
+}
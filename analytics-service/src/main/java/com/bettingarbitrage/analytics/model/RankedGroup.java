@@ -0,0 +1,62 @@
+package com.bettingarbitrage.analytics.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RankedGroup {
+
+    private String eventId;
+    private String eventName;
+    private String marketName;
+    private double sumImpliedProbability;
+    private double guaranteedProfitFraction;
+    private Boolean crossMarket;
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public void setEventName(String eventName) {
+        this.eventName = eventName;
+    }
+
+    public String getMarketName() {
+        return marketName;
+    }
+
+    public void setMarketName(String marketName) {
+        this.marketName = marketName;
+    }
+
+    public double getSumImpliedProbability() {
+        return sumImpliedProbability;
+    }
+
+    public void setSumImpliedProbability(double sumImpliedProbability) {
+        this.sumImpliedProbability = sumImpliedProbability;
+    }
+
+    public double getGuaranteedProfitFraction() {
+        return guaranteedProfitFraction;
+    }
+
+    public void setGuaranteedProfitFraction(double guaranteedProfitFraction) {
+        this.guaranteedProfitFraction = guaranteedProfitFraction;
+    }
+
+    public Boolean getCrossMarket() {
+        return crossMarket;
+    }
+
+    public void setCrossMarket(Boolean crossMarket) {
+        this.crossMarket = crossMarket;
+    }
+}
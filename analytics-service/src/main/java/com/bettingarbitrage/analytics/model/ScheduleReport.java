@@ -0,0 +1,63 @@
+package com.bettingarbitrage.analytics.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ScheduleReport {
+    private int groups;
+    private int events;
+    private long evaluations;
+    private long evaluatedGroups;
+    private List<ScheduledGroup> upcoming;
+    private List<OpportunityResponse> opportunities;
+
+    public int getGroups() {
+        return groups;
+    }
+
+    public void setGroups(int groups) {
+        this.groups = groups;
+    }
+
+    public int getEvents() {
+        return events;
+    }
+
+    public void setEvents(int events) {
+        this.events = events;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    public void setEvaluations(long evaluations) {
+        this.evaluations = evaluations;
+    }
+
+    public long getEvaluatedGroups() {
+        return evaluatedGroups;
+    }
+
+    public void setEvaluatedGroups(long evaluatedGroups) {
+        this.evaluatedGroups = evaluatedGroups;
+    }
+
+    public List<ScheduledGroup> getUpcoming() {
+        return upcoming;
+    }
+
+    public void setUpcoming(List<ScheduledGroup> upcoming) {
+        this.upcoming = upcoming;
+    }
+
+    public List<OpportunityResponse> getOpportunities() {
+        return opportunities;
+    }
+
+    public void setOpportunities(List<OpportunityResponse> opportunities) {
+        this.opportunities = opportunities;
+    }
+}
@@ -0,0 +1,93 @@
+package com.bettingarbitrage.analytics.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SweepResult {
+
+    private String id;
+    private double bankroll;
+    private double minimumEdge;
+    private List<OpportunityResponse> opportunities;
+    // Set only when the deadline cut this parameter set's pass short.
+    private Boolean partial;
+    private Integer skippedGroups;
+    private Integer skippedSimulations;
+    private Integer shortenedSimulations;
+
+    public SweepResult() {
+    }
+
+    public SweepResult(String id, double bankroll, double minimumEdge, List<OpportunityResponse> opportunities) {
+        this.id = id;
+        this.bankroll = bankroll;
+        this.minimumEdge = minimumEdge;
+        this.opportunities = opportunities;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public double getBankroll() {
+        return bankroll;
+    }
+
+    public void setBankroll(double bankroll) {
+        this.bankroll = bankroll;
+    }
+
+    public double getMinimumEdge() {
+        return minimumEdge;
+    }
+
+    public void setMinimumEdge(double minimumEdge) {
+        this.minimumEdge = minimumEdge;
+    }
+
+    public List<OpportunityResponse> getOpportunities() {
+        return opportunities;
+    }
+
+    public void setOpportunities(List<OpportunityResponse> opportunities) {
+        this.opportunities = opportunities;
+    }
+
+    public Boolean getPartial() {
+        return partial;
+    }
+
+    public void setPartial(Boolean partial) {
+        this.partial = partial;
+    }
+
+    public Integer getSkippedGroups() {
+        return skippedGroups;
+    }
+
+    public void setSkippedGroups(Integer skippedGroups) {
+        this.skippedGroups = skippedGroups;
+    }
+
+    public Integer getSkippedSimulations() {
+        return skippedSimulations;
+    }
+
+    public void setSkippedSimulations(Integer skippedSimulations) {
+        this.skippedSimulations = skippedSimulations;
+    }
+
+    public Integer getShortenedSimulations() {
+        return shortenedSimulations;
+    }
+
+    public void setShortenedSimulations(Integer shortenedSimulations) {
+        this.shortenedSimulations = shortenedSimulations;
+    }
+}
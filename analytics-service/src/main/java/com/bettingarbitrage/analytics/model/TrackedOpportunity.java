@@ -0,0 +1,78 @@
+package com.bettingarbitrage.analytics.model;
+
+import java.time.Instant;
+
+public class TrackedOpportunity {
+    private String eventId;
+    private String marketName;
+    private String providers;
+    private Instant firstSeen;
+    private Instant lastSeen;
+    private double peakEdge;
+    private double[] edges;
+    private long[] edgeTimes;
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getMarketName() {
+        return marketName;
+    }
+
+    public void setMarketName(String marketName) {
+        this.marketName = marketName;
+    }
+
+    public String getProviders() {
+        return providers;
+    }
+
+    public void setProviders(String providers) {
+        this.providers = providers;
+    }
+
+    public Instant getFirstSeen() {
+        return firstSeen;
+    }
+
+    public void setFirstSeen(Instant firstSeen) {
+        this.firstSeen = firstSeen;
+    }
+
+    public Instant getLastSeen() {
+        return lastSeen;
+    }
+
+    public void setLastSeen(Instant lastSeen) {
+        this.lastSeen = lastSeen;
+    }
+
+    public double getPeakEdge() {
+        return peakEdge;
+    }
+
+    public void setPeakEdge(double peakEdge) {
+        this.peakEdge = peakEdge;
+    }
+
+    public double[] getEdges() {
+        return edges;
+    }
+
+    public void setEdges(double[] edges) {
+        this.edges = edges;
+    }
+
+    public long[] getEdgeTimes() {
+        return edgeTimes;
+    }
+
+    public void setEdgeTimes(long[] edgeTimes) {
+        this.edgeTimes = edgeTimes;
+    }
+}
@@ -0,0 +1,93 @@
+package com.bettingarbitrage.analytics.profiling;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Heap bytes allocated by the request thread, read from the HotSpot per-thread allocation counter
+ * ({@link com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes()}). Work done on other threads (peer
+ * forwards in cluster mode, parallel cross-market search) is not included.
+ *
+ * <p>Recorded per endpoint as {@code analytics.request.allocated.bytes} and, for snapshot endpoints,
+ * {@code analytics.request.allocated.bytes.per.quote}. With {@code analytics.allocation.response-header} the
+ * count is also returned in {@value #HEADER}.
+ */
+@Component
+public class AllocationMeter {
+
+    public static final String HEADER = "X-Analytics-Allocated-Bytes";
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final boolean responseHeader;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, DistributionSummary> perRequest = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> perQuote = new ConcurrentHashMap<>();
+
+    public AllocationMeter(
+        MeterRegistry meterRegistry,
+        @Value("${analytics.allocation.enabled:true}") boolean enabled,
+        @Value("${analytics.allocation.response-header:false}") boolean responseHeader
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.threads = enabled ? supportedThreadBean() : null;
+        this.responseHeader = responseHeader && threads != null;
+    }
+
+    public boolean isResponseHeaderEnabled() {
+        return responseHeader;
+    }
+
+    /**
+     * Current allocation count of the calling thread, or {@code -1} when accounting is off or unsupported.
+     */
+    public long mark() {
+        return threads == null ? -1 : threads.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Bytes allocated by the calling thread since {@code mark}, or {@code -1} when unavailable.
+     */
+    public long since(long mark) {
+        return mark < 0 ? -1 : Math.max(0, threads.getCurrentThreadAllocatedBytes() - mark);
+    }
+
+    /**
+     * Records the allocation of one request; {@code quotes} of {@code 0} skips the per-quote summary.
+     */
+    public void record(String endpoint, long bytes, int quotes) {
+        if (bytes < 0) {
+            return;
+        }
+        perRequest.computeIfAbsent(endpoint, name -> DistributionSummary.builder("analytics.request.allocated.bytes")
+            .description("Heap bytes allocated by the request thread")
+            .baseUnit("bytes")
+            .tag("endpoint", name)
+            .register(meterRegistry))
+            .record(bytes);
+        if (quotes > 0) {
+            perQuote.computeIfAbsent(endpoint, name -> DistributionSummary.builder("analytics.request.allocated.bytes.per.quote")
+                .description("Heap bytes allocated by the request thread per quote in the snapshot")
+                .baseUnit("bytes")
+                .tag("endpoint", name)
+                .register(meterRegistry))
+                .record((double) bytes / quotes);
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean supportedThreadBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean)
+            || !bean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        if (!bean.isThreadAllocatedMemoryEnabled()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+        }
+        return bean;
+    }
+}
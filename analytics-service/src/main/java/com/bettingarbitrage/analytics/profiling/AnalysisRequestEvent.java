@@ -0,0 +1,72 @@
+package com.bettingarbitrage.analytics.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One event per {@code /api/analyze} request, spanning validation through response serialization. The event is
+ * bound to the request thread while it is open so that {@code ArbitrageService} can add the group count without
+ * threading profiling state through its signatures.
+ */
+@Name("com.bettingarbitrage.AnalysisRequest")
+@Label("Analysis Request")
+@Category({"Betting Arbitrage", "Analytics"})
+@Description("Input shape and outcome of one analyze request")
+public class AnalysisRequestEvent extends Event {
+
+    private static final ThreadLocal<AnalysisRequestEvent> CURRENT = new ThreadLocal<>();
+
+    @Label("Markets In")
+    public int marketsIn;
+
+    @Label("Groups")
+    @Description("Event/market groups formed from the best quotes")
+    public int groups;
+
+    @Label("Opportunities Out")
+    public int opportunitiesOut;
+
+    @Label("Bytes Parsed")
+    @DataAmount
+    public long bytesParsed;
+
+    @Label("Parameter Sets")
+    public int parameterSets;
+
+    @Label("Warm-up")
+    @Description("Synthetic request issued by the startup warm-up")
+    public boolean warmup;
+
+    public static AnalysisRequestEvent begin(int marketsIn, long bytesParsed, int parameterSets, boolean warmup) {
+        AnalysisRequestEvent event = new AnalysisRequestEvent();
+        if (event.isEnabled()) {
+            event.marketsIn = marketsIn;
+            event.bytesParsed = bytesParsed;
+            event.parameterSets = parameterSets;
+            event.warmup = warmup;
+            event.begin();
+            CURRENT.set(event);
+        }
+        return event;
+    }
+
+    /** Adds to the group count of the request being analysed on this thread, if it is being recorded. */
+    public static void recordGroups(int groups) {
+        AnalysisRequestEvent event = CURRENT.get();
+        if (event != null) {
+            event.groups += groups;
+        }
+    }
+
+    public void finish(int opportunitiesOut) {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        this.opportunitiesOut = opportunitiesOut;
+        commit();
+    }
+}
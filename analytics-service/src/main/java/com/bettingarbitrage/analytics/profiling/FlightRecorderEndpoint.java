@@ -0,0 +1,213 @@
+package com.bettingarbitrage.analytics.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/jfr}: GET for status, POST {@code /start} and {@code /stop} to control a single recording,
+ * GET {@code /download} for the recorded data (a snapshot if the recording is still running).
+ *
+ * <p>With {@code analytics.jfr.continuous} (the default) a recording runs from startup to shutdown, so there is
+ * always data to download. It keeps at most {@code max-age-ms} and {@code max-size-mb} of data on disk, older
+ * chunks being discarded first, and so cannot fill the disk however long the service runs.
+ *
+ * <p>Start and stop answer 404 unless {@code analytics.jfr.control-enabled} is set; ad-hoc recordings (e.g. with
+ * the {@code profile} settings) add overhead, so control stays opt-in on an unauthenticated management port.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+public class FlightRecorderEndpoint implements SmartLifecycle {
+
+    private static final String[] APPLICATION_EVENTS = {
+        "com.bettingarbitrage.AnalysisRequest",
+        "com.bettingarbitrage.OpportunityEvaluation",
+        "com.bettingarbitrage.Simulation"
+    };
+
+    private final boolean continuous;
+    private final boolean controlEnabled;
+    private final String settings;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private Recording recording;
+    private boolean running;
+
+    public FlightRecorderEndpoint(
+        @Value("${analytics.jfr.continuous:true}") boolean continuous,
+        @Value("${analytics.jfr.control-enabled:false}") boolean controlEnabled,
+        @Value("${analytics.jfr.settings:default}") String settings,
+        @Value("${analytics.jfr.max-age-ms:1800000}") long maxAgeMs,
+        @Value("${analytics.jfr.max-size-mb:256}") long maxSizeMb
+    ) {
+        this.continuous = continuous;
+        this.controlEnabled = controlEnabled;
+        this.settings = settings;
+        this.maxAge = Duration.ofMillis(Math.max(1, maxAgeMs));
+        this.maxSizeBytes = Math.max(1, maxSizeMb) * 1024 * 1024;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (continuous) {
+            startRecording(settings, null);
+        }
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        running = false;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("name", recording.getName());
+        status.put("startTime", recording.getStartTime());
+        status.put("stopTime", recording.getStopTime());
+        status.put("maxAge", recording.getMaxAge());
+        status.put("maxSize", recording.getMaxSize());
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> control(
+        @Selector String action,
+        @Nullable String settings,
+        @Nullable Long maxAgeSeconds
+    ) {
+        if (!controlEnabled) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        switch (action) {
+            case "start" -> startRecording(settings != null ? settings : this.settings, maxAgeSeconds);
+            case "stop" -> {
+                if (recording != null && recording.getState() == RecordingState.RUNNING) {
+                    recording.stop();
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown action: " + action);
+        }
+        return new WebEndpointResponse<>(status());
+    }
+
+    /**
+     * Dumps the recording to a temporary file and streams it; the file is opened with
+     * {@link StandardOpenOption#DELETE_ON_CLOSE} and removed right away if the dump or open fails.
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized Resource download(@Selector String file) {
+        if (!"download".equals(file)) {
+            return null;
+        }
+        if (recording == null || recording.getState() == RecordingState.NEW) {
+            return null;
+        }
+        Path target = null;
+        InputStream content = null;
+        try {
+            target = Files.createTempFile("analytics-", ".jfr");
+            recording.dump(target);
+            long size = Files.size(target);
+            content = Files.newInputStream(target, StandardOpenOption.DELETE_ON_CLOSE);
+            return new RecordingResource(content, size);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            if (content == null && target != null) {
+                deleteQuietly(target);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // best effort; the temp directory is the fallback
+        }
+    }
+
+    private void startRecording(String settings, @Nullable Long maxAgeSeconds) {
+        if (recording != null) {
+            if (recording.getState() == RecordingState.RUNNING) {
+                return;
+            }
+            recording.close();
+        }
+        try {
+            Recording next = new Recording(Configuration.getConfiguration(settings));
+            next.setName("analytics");
+            next.setToDisk(true);
+            next.setMaxAge(maxAgeSeconds != null ? Duration.ofSeconds(maxAgeSeconds) : maxAge);
+            next.setMaxSize(maxSizeBytes);
+            for (String event : APPLICATION_EVENTS) {
+                next.enable(event);
+            }
+            next.start();
+            recording = next;
+        } catch (IOException | ParseException ex) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settings, ex);
+        }
+    }
+
+    /**
+     * A one-shot stream over the dumped file that still reports its length, so the response is not chunked.
+     */
+    private static final class RecordingResource extends InputStreamResource {
+
+        private final long size;
+
+        RecordingResource(InputStream content, long size) {
+            super(content, "JFR recording");
+            this.size = size;
+        }
+
+        @Override
+        public long contentLength() {
+            return size;
+        }
+
+        @Override
+        public String getFilename() {
+            return "analytics.jfr";
+        }
+    }
+}
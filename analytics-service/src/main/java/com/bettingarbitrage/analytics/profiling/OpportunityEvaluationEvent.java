@@ -0,0 +1,28 @@
+package com.bettingarbitrage.analytics.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.StackTrace;
+
+@Name("com.bettingarbitrage.OpportunityEvaluation")
+@Label("Opportunity Evaluation")
+@Category({"Betting Arbitrage", "Analytics"})
+@StackTrace(false)
+public class OpportunityEvaluationEvent extends Event {
+
+    @Label("Event Id")
+    public String eventId;
+
+    @Label("Market")
+    public String marketName;
+
+    @Label("Runners")
+    public int runners;
+
+    @Label("Edge")
+    @Percentage
+    public double edge;
+}
@@ -0,0 +1,20 @@
+package com.bettingarbitrage.analytics.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.bettingarbitrage.Simulation")
+@Label("Monte Carlo Simulation")
+@Category({"Betting Arbitrage", "Analytics"})
+@StackTrace(false)
+public class SimulationEvent extends Event {
+
+    @Label("Trials")
+    public int trials;
+
+    @Label("Runners")
+    public int runners;
+}
@@ -0,0 +1,458 @@
+package com.bettingarbitrage.analytics.scheduling;
+
+import com.bettingarbitrage.analytics.model.AnalyzeRequest;
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.ScheduleReport;
+import com.bettingarbitrage.analytics.model.ScheduledGroup;
+import com.bettingarbitrage.analytics.service.ArbitrageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Re-analyses pushed quotes on a per event/market group cadence instead of one fixed interval for everything.
+ * Each group's interval starts at {@code base-interval-ms} and is scaled by
+ * <ul>
+ *   <li>time to start: {@code sqrt(timeToStart / start-horizon-ms)}, so in-play groups go to the minimum and
+ *   events days out stretch towards the maximum (groups without a start time are not scaled);</li>
+ *   <li>price volatility: divided by {@code 1 + volatility / volatility-scale}, where volatility is an EWMA of the
+ *   mean absolute log change of the group's quotes per push;</li>
+ *   <li>proximity to arbitrage: multiplied by {@code overround / proximity-margin} while the best-price
+ *   overround is below {@code proximity-margin}, so open arbitrages are refreshed at the minimum interval,</li>
+ * </ul>
+ * and clamped to {@code [min-interval-ms, max-interval-ms]}.
+ *
+ * <p>Groups wait in a priority queue ordered by due time; each tick pops the due ones. Only groups whose quotes
+ * or settings changed since their last analysis are re-analysed: a push marks a group dirty when it adds a quote,
+ * moves a price or changes the bankroll or minimum edge, and a dirty group comes due one interval after its last
+ * analysis. Re-pushing the same prices only refreshes the quotes' age. A due group's whole event is analysed, as
+ * in the gRPC stream, so cross-market combinations see every market of the event, and every group of that event
+ * counts as refreshed.
+ *
+ * <p>Each quote expires {@code quote-ttl-ms} after it was last pushed, so suspended or withdrawn prices that
+ * providers simply stop sending leave the book instead of keeping a phantom arbitrage open; a group is also due
+ * when its oldest quote expires, and losing a quote marks its event dirty. Groups without a push for
+ * {@code idle-timeout-ms}, or without any live quote, are dropped.
+ *
+ * <p>Bankroll and minimum edge are kept per group, from the push that last touched it; groups pushed with
+ * different settings are analysed separately.
+ */
+@Component
+public class ReanalysisScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReanalysisScheduler.class);
+    private static final double VOLATILITY_ALPHA = 0.3;
+
+    private final ArbitrageService arbitrageService;
+    private final boolean enabled;
+    private final long baseIntervalMs;
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final long startHorizonMs;
+    private final double volatilityScale;
+    private final double proximityMargin;
+    private final long idleTimeoutMs;
+    private final long quoteTtlMs;
+    private final int maxEventsPerTick;
+    private final Counter evaluationCounter;
+
+    private final Map<String, Group> groups = new HashMap<>();
+    private final Map<String, Set<Group>> groupsByEvent = new HashMap<>();
+    private final PriorityQueue<Due> queue = new PriorityQueue<>(Comparator.comparingLong(Due::at));
+    private final Map<String, Map<String, OpportunityResponse>> openByEvent = new HashMap<>();
+    private long evaluations;
+    private long evaluatedGroups;
+
+    public ReanalysisScheduler(
+        ArbitrageService arbitrageService,
+        MeterRegistry meterRegistry,
+        @Value("${analytics.scheduler.enabled:true}") boolean enabled,
+        @Value("${analytics.scheduler.base-interval-ms:15000}") long baseIntervalMs,
+        @Value("${analytics.scheduler.min-interval-ms:1000}") long minIntervalMs,
+        @Value("${analytics.scheduler.max-interval-ms:300000}") long maxIntervalMs,
+        @Value("${analytics.scheduler.start-horizon-ms:3600000}") long startHorizonMs,
+        @Value("${analytics.scheduler.volatility-scale:0.01}") double volatilityScale,
+        @Value("${analytics.scheduler.proximity-margin:0.05}") double proximityMargin,
+        @Value("${analytics.scheduler.idle-timeout-ms:600000}") long idleTimeoutMs,
+        @Value("${analytics.scheduler.quote-ttl-ms:60000}") long quoteTtlMs,
+        @Value("${analytics.scheduler.max-events-per-tick:256}") int maxEventsPerTick
+    ) {
+        this.arbitrageService = arbitrageService;
+        this.enabled = enabled;
+        this.baseIntervalMs = baseIntervalMs;
+        this.minIntervalMs = Math.max(1, minIntervalMs);
+        this.maxIntervalMs = Math.max(this.minIntervalMs, maxIntervalMs);
+        this.startHorizonMs = Math.max(1, startHorizonMs);
+        this.volatilityScale = volatilityScale;
+        this.proximityMargin = proximityMargin;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.quoteTtlMs = Math.max(1, quoteTtlMs);
+        this.maxEventsPerTick = Math.max(1, maxEventsPerTick);
+        this.evaluationCounter = Counter.builder("analytics.scheduler.evaluations")
+            .description("Event/market groups re-analysed by the scheduler")
+            .register(meterRegistry);
+        Gauge.builder("analytics.scheduler.groups", this, ReanalysisScheduler::groupCount)
+            .description("Event/market groups held by the scheduler")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Merges validated quotes into the book, keeping the latest price per runner and provider, and reschedules the
+     * groups they touch. {@code bankroll} and {@code minimumEdge} of the request apply to later re-analyses of
+     * those groups.
+     */
+    public void offer(AnalyzeRequest request) {
+        offer(request, System.currentTimeMillis());
+    }
+
+    synchronized void offer(AnalyzeRequest request, long now) {
+        Settings settings = new Settings(request.getBankroll(), request.getMinimumEdge());
+        Map<Group, double[]> moves = new HashMap<>();
+        for (MarketSnapshot quote : request.getMarkets()) {
+            String key = groupKey(quote.getEventId(), quote.getMarketName());
+            Group group = groups.get(key);
+            if (group == null) {
+                group = new Group(key, quote.getEventId());
+                groups.put(key, group);
+                groupsByEvent.computeIfAbsent(group.eventId, k -> new LinkedHashSet<>()).add(group);
+            }
+            group.marketName = quote.getMarketName();
+            if (quote.getStartTime() != null) {
+                group.startTime = quote.getStartTime();
+            }
+            if (!settings.equals(group.settings)) {
+                group.settings = settings;
+                group.dirty = true;
+            }
+            Quote previous = group.quotes.put(
+                quote.getRunner().getId() + "::" + quote.getProvider().getId(), new Quote(quote, now));
+            double[] move = moves.computeIfAbsent(group, k -> new double[2]);
+            if (previous == null) {
+                group.dirty = true;
+            } else {
+                double change = Math.abs(Math.log(quote.getOddsDecimal() / previous.snapshot().getOddsDecimal()));
+                group.dirty |= change > 0;
+                move[0] += change;
+            }
+            move[1]++;
+        }
+
+        for (Map.Entry<Group, double[]> entry : moves.entrySet()) {
+            Group group = entry.getKey();
+            double[] move = entry.getValue();
+            group.volatility = VOLATILITY_ALPHA * (move[0] / move[1]) + (1 - VOLATILITY_ALPHA) * group.volatility;
+            group.margin = overround(group);
+            group.lastPush = now;
+            group.intervalMs = interval(group, now);
+            long due = nextDue(group, now);
+            if (due < group.dueAt) {
+                schedule(group, due);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.scheduler.tick-ms:250}")
+    public void tick() {
+        if (enabled) {
+            tick(System.currentTimeMillis());
+        }
+    }
+
+    void tick(long now) {
+        Batch batch = takeDue(now);
+        if (batch.events.isEmpty()) {
+            return;
+        }
+        List<OpportunityResponse> opportunities = new ArrayList<>();
+        try {
+            for (Map.Entry<Settings, List<MarketSnapshot>> entry : batch.markets.entrySet()) {
+                AnalyzeRequest request = new AnalyzeRequest();
+                request.setSnapshotTime(Instant.ofEpochMilli(now));
+                request.setBankroll(entry.getKey().bankroll());
+                request.setMinimumEdge(entry.getKey().minimumEdge());
+                request.setMarkets(entry.getValue());
+                opportunities.addAll(arbitrageService.analyzeSnapshot(request).getOpportunities());
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Scheduled re-analysis of {} events failed", batch.events.size(), ex);
+            opportunities = null;
+        }
+        complete(batch, opportunities, now);
+    }
+
+    public ScheduleReport report(int limit) {
+        return report(limit, System.currentTimeMillis());
+    }
+
+    synchronized ScheduleReport report(int limit, long now) {
+        ScheduleReport report = new ScheduleReport();
+        report.setGroups(groups.size());
+        report.setEvents(groupsByEvent.size());
+        report.setEvaluations(evaluations);
+        report.setEvaluatedGroups(evaluatedGroups);
+        if (limit > 0) {
+            List<ScheduledGroup> upcoming = new ArrayList<>();
+            groups.values().stream()
+                .sorted(Comparator.comparingLong(group -> group.dueAt))
+                .limit(limit)
+                .forEach(group -> upcoming.add(describe(group, now)));
+            report.setUpcoming(upcoming);
+        }
+        List<OpportunityResponse> opportunities = new ArrayList<>();
+        for (Map<String, OpportunityResponse> open : openByEvent.values()) {
+            opportunities.addAll(open.values());
+        }
+        opportunities.sort(Comparator.comparingDouble(OpportunityResponse::getGuaranteedProfitFraction).reversed());
+        report.setOpportunities(opportunities);
+        return report;
+    }
+
+    private synchronized Batch takeDue(long now) {
+        Batch batch = new Batch();
+        while (!queue.isEmpty() && queue.peek().at() <= now && batch.events.size() < maxEventsPerTick) {
+            Due due = queue.poll();
+            Group group = due.group();
+            if (due.generation() != group.generation || groups.get(group.key) != group) {
+                continue; // superseded by a reschedule, or dropped
+            }
+            boolean expired = expire(group.eventId, now);
+            Set<Group> members = groupsByEvent.get(group.eventId);
+            if (members == null) {
+                continue; // nothing left of the event
+            }
+            if (!expired && !(group.dirty && changeDue(group) <= now)) {
+                // Due only to check expiry, or to run a throttled change that is not due yet.
+                schedule(group, nextDue(group, now));
+                continue;
+            }
+            if (batch.events.add(group.eventId)) {
+                for (Group member : members) {
+                    List<MarketSnapshot> markets = batch.markets.computeIfAbsent(member.settings, k -> new ArrayList<>());
+                    for (Quote quote : member.quotes.values()) {
+                        markets.add(quote.snapshot());
+                    }
+                    member.dirty = false;
+                    member.lastEvaluated = now;
+                    member.dueAt = Long.MAX_VALUE; // in flight; a push meanwhile may still schedule it sooner
+                    member.generation++;
+                    batch.groups.add(member);
+                }
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Drops the event's expired quotes and its idle or emptied groups, and marks the rest of the event dirty if
+     * anything was dropped, so that opportunities built on the dropped prices are re-checked now. Returns whether
+     * anything was dropped.
+     */
+    private boolean expire(String eventId, long now) {
+        Set<Group> members = groupsByEvent.get(eventId);
+        boolean changed = false;
+        for (Group member : new ArrayList<>(members)) {
+            if (member.quotes.values().removeIf(quote -> now - quote.receivedAt() >= quoteTtlMs)) {
+                changed = true;
+                member.margin = overround(member);
+            }
+            if (member.quotes.isEmpty() || now - member.lastPush > idleTimeoutMs) {
+                remove(member);
+                changed = true;
+            }
+        }
+        if (changed) {
+            for (Group member : members) {
+                member.dirty = true;
+            }
+        }
+        return changed;
+    }
+
+    private synchronized void complete(Batch batch, List<OpportunityResponse> opportunities, long now) {
+        if (opportunities != null) {
+            for (String eventId : batch.events) {
+                openByEvent.remove(eventId);
+            }
+            for (OpportunityResponse opportunity : opportunities) {
+                // Events dropped while the batch was in flight must not come back through its results.
+                if (groupsByEvent.containsKey(opportunity.getEventId())) {
+                    openByEvent.computeIfAbsent(opportunity.getEventId(), k -> new HashMap<>())
+                        .put(opportunity.getMarketName().toLowerCase(Locale.ROOT), opportunity);
+                }
+            }
+            evaluations += batch.events.size();
+            evaluatedGroups += batch.groups.size();
+            evaluationCounter.increment(batch.groups.size());
+        }
+        for (Group group : batch.groups) {
+            if (groups.get(group.key) != group) {
+                continue;
+            }
+            if (opportunities == null) {
+                group.dirty = true; // retried one interval later
+            } else {
+                group.evaluations++;
+            }
+            group.intervalMs = interval(group, now);
+            long due = nextDue(group, now);
+            if (due < group.dueAt) {
+                schedule(group, due);
+            }
+        }
+    }
+
+    /**
+     * A dirty group is due at once if it was never analysed, otherwise no earlier than one (possibly shorter)
+     * interval after its last analysis. Any group is also due when its oldest quote expires or it turns idle.
+     */
+    private long nextDue(Group group, long now) {
+        long due = group.lastPush + idleTimeoutMs + 1;
+        for (Quote quote : group.quotes.values()) {
+            due = Math.min(due, quote.receivedAt() + quoteTtlMs);
+        }
+        if (group.dirty) {
+            due = Math.min(due, changeDue(group));
+        }
+        return Math.max(now, due);
+    }
+
+    private static long changeDue(Group group) {
+        return group.lastEvaluated == 0 ? Long.MIN_VALUE : group.lastEvaluated + group.intervalMs;
+    }
+
+    private void schedule(Group group, long due) {
+        group.dueAt = due;
+        group.generation++;
+        queue.add(new Due(due, group, group.generation));
+    }
+
+    private void remove(Group group) {
+        groups.remove(group.key);
+        Set<Group> members = groupsByEvent.get(group.eventId);
+        members.remove(group);
+        if (members.isEmpty()) {
+            groupsByEvent.remove(group.eventId);
+            openByEvent.remove(group.eventId);
+        } else {
+            Map<String, OpportunityResponse> open = openByEvent.get(group.eventId);
+            if (open != null) {
+                open.remove(group.marketName.toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    private long interval(Group group, long now) {
+        double interval = baseIntervalMs;
+        if (group.startTime != null) {
+            long toStart = group.startTime.toEpochMilli() - now;
+            interval *= toStart <= 0 ? 0 : Math.sqrt((double) toStart / startHorizonMs);
+        }
+        if (volatilityScale > 0) {
+            interval /= 1 + group.volatility / volatilityScale;
+        }
+        if (proximityMargin > 0 && !Double.isNaN(group.margin)) {
+            interval *= Math.min(1, Math.max(0, group.margin) / proximityMargin);
+        }
+        return Math.max(minIntervalMs, Math.min(maxIntervalMs, Math.round(interval)));
+    }
+
+    /**
+     * Sum of the best implied probability per runner minus one; negative while the group is an arbitrage and
+     * {@code NaN} while fewer than two runners are priced.
+     */
+    private static double overround(Group group) {
+        Map<String, Double> best = new HashMap<>();
+        for (Quote quote : group.quotes.values()) {
+            best.merge(quote.snapshot().getRunner().getId(), quote.snapshot().getImpliedProbability(), Math::min);
+        }
+        if (best.size() < 2) {
+            return Double.NaN;
+        }
+        double sum = 0;
+        for (double implied : best.values()) {
+            sum += implied;
+        }
+        return sum - 1;
+    }
+
+    private ScheduledGroup describe(Group group, long now) {
+        ScheduledGroup scheduled = new ScheduledGroup();
+        scheduled.setEventId(group.eventId);
+        scheduled.setMarketName(group.marketName);
+        scheduled.setStartTime(group.startTime);
+        scheduled.setIntervalMs(group.intervalMs);
+        scheduled.setDueInMs(group.dueAt == Long.MAX_VALUE ? 0 : Math.max(0, group.dueAt - now));
+        scheduled.setVolatility(group.volatility);
+        scheduled.setMargin(Double.isNaN(group.margin) ? null : group.margin);
+        scheduled.setEvaluations(group.evaluations);
+        return scheduled;
+    }
+
+    private synchronized int groupCount() {
+        return groups.size();
+    }
+
+    private static String groupKey(String eventId, String marketName) {
+        return eventId + "::" + marketName.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Group {
+        private final String key;
+        private final String eventId;
+        private final Map<String, Quote> quotes = new HashMap<>();
+        private String marketName;
+        private Settings settings;
+        private boolean dirty;
+        private Instant startTime;
+        private double volatility;
+        private double margin = Double.NaN;
+        private long intervalMs;
+        private long lastPush;
+        private long lastEvaluated;
+        private long dueAt = Long.MAX_VALUE;
+        private long generation;
+        private long evaluations;
+
+        Group(String key, String eventId) {
+            this.key = key;
+            this.eventId = eventId;
+        }
+    }
+
+    private record Quote(MarketSnapshot snapshot, long receivedAt) {
+    }
+
+    private record Settings(double bankroll, double minimumEdge) {
+    }
+
+    private record Due(long at, Group group, long generation) {
+    }
+
+    private static final class Batch {
+        private final Set<String> events = new LinkedHashSet<>();
+        private final List<Group> groups = new ArrayList<>();
+        private final Map<Settings, List<MarketSnapshot>> markets = new LinkedHashMap<>();
+    }
+}
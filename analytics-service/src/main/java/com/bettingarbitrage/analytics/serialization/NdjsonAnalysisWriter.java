@@ -0,0 +1,177 @@
+package com.bettingarbitrage.analytics.serialization;
+
+import com.bettingarbitrage.analytics.model.AnalyzeResponse;
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.RankedGroup;
+import com.bettingarbitrage.analytics.profiling.AllocationMeter;
+import com.bettingarbitrage.analytics.service.AnalysisListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code application/x-ndjson} rendering of an analysis, one JSON record per line and flushed per record:
+ * <pre>
+ * {"type":"preface","groups":[...]}             optional: top-ranked qualifying groups, before any evaluation
+ * {"type":"opportunity","opportunity":{...}}    one per opportunity, as soon as it has been evaluated
+ * {"type":"summary","opportunities":n,"timings":{...},...}   counts, timings and the rest of the response
+ * </pre>
+ * Opportunity records reuse the fragments of {@link OpportunityFragmentCache}. A stream that ends without a
+ * summary record was cut short.
+ * <p>
+ * Opportunity records always carry the stakes for the request's own bankroll, never portfolio-allocated ones: a
+ * {@code portfolio} split needs every opportunity before any amount is known. With a portfolio, the allocated
+ * stakes arrive only in the summary, as {@code portfolio.positions} keyed by {@code eventId} and
+ * {@code marketName}; a stream cut short therefore carries no allocation at all.
+ * <p>
+ * Records written while the analysis runs allocate on the request thread; {@link Stream#allocatedBytes()} reports
+ * that share so callers can leave serialization out of their allocation figures.
+ */
+@Component
+public class NdjsonAnalysisWriter {
+
+    private static final byte[] OPPORTUNITY_OPEN = "{\"type\":\"opportunity\",\"opportunity\":".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+    private final OpportunityFragmentCache fragmentCache;
+    private final AllocationMeter allocationMeter;
+
+    public NdjsonAnalysisWriter(ObjectMapper objectMapper, OpportunityFragmentCache fragmentCache, AllocationMeter allocationMeter) {
+        this.objectMapper = objectMapper;
+        this.fragmentCache = fragmentCache;
+        this.allocationMeter = allocationMeter;
+    }
+
+    /**
+     * Starts a stream on {@code out}; timings in the summary are measured from {@code startedNanos}.
+     */
+    public Stream open(OutputStream out, int prefaceSize, long startedNanos) {
+        return open(out, prefaceSize, startedNanos, true);
+    }
+
+    /**
+     * As {@link #open(OutputStream, int, long)}; with {@code cacheFragments} false opportunity records are
+     * serialized without reading or filling the {@link OpportunityFragmentCache}.
+     */
+    public Stream open(OutputStream out, int prefaceSize, long startedNanos, boolean cacheFragments) {
+        return new Stream(out, prefaceSize, startedNanos, cacheFragments);
+    }
+
+    public final class Stream implements AnalysisListener {
+
+        private final OutputStream out;
+        private final int prefaceSize;
+        private final long startedNanos;
+        private final boolean cacheFragments;
+        private int opportunities;
+        private long firstOpportunityNanos = -1;
+        private long allocatedBytes;
+
+        private Stream(OutputStream out, int prefaceSize, long startedNanos, boolean cacheFragments) {
+            this.out = out;
+            this.prefaceSize = Math.max(0, prefaceSize);
+            this.startedNanos = startedNanos;
+            this.cacheFragments = cacheFragments;
+        }
+
+        /**
+         * Heap bytes the calling thread allocated writing preface and opportunity records, {@code 0} when
+         * allocation accounting is off. The summary record is not included.
+         */
+        public long allocatedBytes() {
+            return allocatedBytes;
+        }
+
+        @Override
+        public int rankedLimit() {
+            return prefaceSize;
+        }
+
+        @Override
+        public void onRanked(List<RankedGroup> ranked) {
+            Map<String, Object> preface = new LinkedHashMap<>();
+            preface.put("type", "preface");
+            preface.put("groups", ranked);
+            long mark = allocationMeter.mark();
+            try {
+                writeLine(objectMapper.writeValueAsBytes(preface));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            } finally {
+                countAllocation(mark);
+            }
+        }
+
+        @Override
+        public void onOpportunity(OpportunityResponse opportunity) {
+            long mark = allocationMeter.mark();
+            try {
+                out.write(OPPORTUNITY_OPEN);
+                fragmentCache.writeOpportunity(opportunity, out, cacheFragments);
+                out.write('}');
+                out.write('\n');
+                out.flush();
+            } catch (IOException ex) {
+                // Usually the client went away; aborting the analysis saves the remaining work.
+                throw new UncheckedIOException(ex);
+            } finally {
+                countAllocation(mark);
+            }
+            if (opportunities++ == 0) {
+                firstOpportunityNanos = System.nanoTime();
+            }
+        }
+
+        /**
+         * Writes the summary record: counts, timings and every other non-null property of {@code response}
+         * (sweeps, portfolio, partial-result counters, dropped quotes).
+         */
+        public void finish(AnalyzeResponse response) throws IOException {
+            Map<String, Object> timings = new LinkedHashMap<>();
+            if (firstOpportunityNanos >= 0) {
+                timings.put("firstOpportunityMs", millisSinceStart(firstOpportunityNanos));
+            }
+            timings.put("totalMs", millisSinceStart(System.nanoTime()));
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("type", "summary");
+            summary.put("opportunities", opportunities);
+            summary.put("timings", timings);
+
+            byte[] head = objectMapper.writeValueAsBytes(summary);
+            byte[] envelope = fragmentCache.envelope(response);
+            out.write(head, 0, head.length - 1);
+            // Both are "{...}" objects; splice the envelope's properties into the summary.
+            if (envelope.length > 2) {
+                out.write(',');
+                out.write(envelope, 1, envelope.length - 2);
+            }
+            out.write('}');
+            out.write('\n');
+            out.flush();
+        }
+
+        private void writeLine(byte[] record) throws IOException {
+            out.write(record);
+            out.write('\n');
+            out.flush();
+        }
+
+        private void countAllocation(long mark) {
+            if (mark >= 0) {
+                allocatedBytes += allocationMeter.since(mark);
+            }
+        }
+
+        private double millisSinceStart(long nanos) {
+            return (nanos - startedNanos) / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.bettingarbitrage.analytics.serialization;
+
+import com.bettingarbitrage.analytics.model.AnalyzeResponse;
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.StakeResponse;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonIncludeProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the serialized JSON of recently returned opportunities so that unchanged opportunities are not
+ * re-serialized on every poll. Fragments are keyed on the priced content of an opportunity (event, market,
+ * bankroll and every stake) and hold only the properties derived from it. The key is a 64-bit hash mixed from
+ * the cached string hash codes and raw double bits, so a lookup allocates nothing and costs far less than the
+ * serialization it saves; each entry keeps the content it was built from and a hit is only served after
+ * comparing it field by field, so a hash collision re-serializes rather than returning another opportunity. {@code createdAt} and the Monte Carlo
+ * summary change from one analysis to the next, so they are serialized for every response and spliced onto the
+ * end of the cached object; a cached opportunity is never served with an old timestamp or simulation.
+ */
+@Component
+public class OpportunityFragmentCache {
+
+    private static final byte[] OPPORTUNITIES_OPEN = "{\"opportunities\":[".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectWriter fragmentWriter;
+    private final ObjectWriter volatileWriter;
+    private final ObjectWriter envelopeWriter;
+    private final Map<Long, Fragment> fragments;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public OpportunityFragmentCache(
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${analytics.fragment-cache.max-entries:10000}") int maxEntries
+    ) {
+        this.fragmentWriter = objectMapper.copy()
+            .addMixIn(OpportunityResponse.class, FragmentMixin.class)
+            .writerFor(OpportunityResponse.class);
+        this.volatileWriter = objectMapper.copy()
+            .addMixIn(OpportunityResponse.class, VolatileMixin.class)
+            .writerFor(OpportunityResponse.class);
+        this.envelopeWriter = objectMapper.copy()
+            .addMixIn(AnalyzeResponse.class, EnvelopeMixin.class)
+            .writerFor(AnalyzeResponse.class);
+        this.fragments = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Fragment> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        Gauge.builder("analytics.fragment.cache.size", this, OpportunityFragmentCache::size)
+            .description("Serialized opportunity fragments currently cached")
+            .register(meterRegistry);
+        FunctionCounter.builder("analytics.fragment.cache.hits", hits, AtomicLong::doubleValue)
+            .register(meterRegistry);
+        FunctionCounter.builder("analytics.fragment.cache.misses", misses, AtomicLong::doubleValue)
+            .register(meterRegistry);
+        Gauge.builder("analytics.fragment.cache.hit.ratio", this, OpportunityFragmentCache::hitRatio)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Writes {@code response} as JSON, copying cached opportunity fragments straight to {@code out} and
+     * serializing only the opportunities that have not been seen before.
+     */
+    public void write(AnalyzeResponse response, OutputStream out) throws IOException {
+        write(response, out, true);
+    }
+
+    /**
+     * As {@link #write(AnalyzeResponse, OutputStream)}; with {@code cached} false every opportunity is serialized
+     * the same way but the cache is neither read nor filled, so synthetic traffic leaves no entries behind.
+     */
+    public void write(AnalyzeResponse response, OutputStream out, boolean cached) throws IOException {
+        List<OpportunityResponse> opportunities = response.getOpportunities();
+        byte[] envelope = envelope(response);
+
+        if (opportunities == null) {
+            out.write(envelope);
+            return;
+        }
+
+        out.write(OPPORTUNITIES_OPEN);
+        for (int i = 0; i < opportunities.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeOpportunity(opportunities.get(i), out, cached);
+        }
+        out.write(']');
+        // The envelope is "{...}" holding every other non-null property; splice its body after the array.
+        if (envelope.length > 2) {
+            out.write(',');
+            out.write(envelope, 1, envelope.length - 2);
+        }
+        out.write('}');
+    }
+
+    /**
+     * Every non-null property of {@code response} except {@code opportunities}, as a JSON object.
+     */
+    public byte[] envelope(AnalyzeResponse response) throws IOException {
+        return envelopeWriter.writeValueAsBytes(response);
+    }
+
+    public void clear() {
+        synchronized (fragments) {
+            fragments.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (fragments) {
+            return fragments.size();
+        }
+    }
+
+    public double hitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     * Writes {@code opportunity} as a JSON object: the cached fragment for its priced content, closed with its own
+     * {@code createdAt} and simulation.
+     */
+    public void writeOpportunity(OpportunityResponse opportunity, OutputStream out) throws IOException {
+        writeOpportunity(opportunity, out, true);
+    }
+
+    /**
+     * As {@link #writeOpportunity(OpportunityResponse, OutputStream)}, bypassing the cache when {@code cached} is
+     * false.
+     */
+    public void writeOpportunity(OpportunityResponse opportunity, OutputStream out, boolean cached) throws IOException {
+        byte[] fragment = cached ? fragment(opportunity) : fragmentWriter.writeValueAsBytes(opportunity);
+        byte[] current = volatileWriter.writeValueAsBytes(opportunity);
+        out.write(fragment, 0, fragment.length - 1);
+        if (current.length > 2) {
+            if (fragment.length > 2) {
+                out.write(',');
+            }
+            out.write(current, 1, current.length - 1);
+        } else {
+            out.write('}');
+        }
+    }
+
+    private byte[] fragment(OpportunityResponse opportunity) throws IOException {
+        long hash = contentHash(opportunity);
+        Fragment cached;
+        synchronized (fragments) {
+            cached = fragments.get(hash);
+        }
+        if (cached != null && cached.matches(opportunity)) {
+            hits.incrementAndGet();
+            return cached.json;
+        }
+
+        misses.incrementAndGet();
+        Fragment fragment = new Fragment(opportunity, fragmentWriter.writeValueAsBytes(opportunity));
+        synchronized (fragments) {
+            fragments.put(hash, fragment);
+        }
+        return fragment.json;
+    }
+
+    private static long contentHash(OpportunityResponse opportunity) {
+        long hash = mix(0, Objects.hashCode(opportunity.getEventId()));
+        hash = mix(hash, Objects.hashCode(opportunity.getEventName()));
+        hash = mix(hash, Objects.hashCode(opportunity.getMarketName()));
+        hash = mix(hash, Objects.hashCode(opportunity.getSport()));
+        hash = mix(hash, Objects.hashCode(opportunity.getLeague()));
+        hash = mix(hash, Double.doubleToLongBits(opportunity.getBankroll()));
+        hash = mix(hash, Double.doubleToLongBits(opportunity.getSumImpliedProbability()));
+        List<StakeResponse> stakes = opportunity.getStakes();
+        if (stakes != null) {
+            for (StakeResponse stake : stakes) {
+                hash = mix(hash, Objects.hashCode(stake.getRunner()));
+                hash = mix(hash, Objects.hashCode(stake.getProviderId()));
+                hash = mix(hash, Objects.hashCode(stake.getProviderName()));
+                hash = mix(hash, Double.doubleToLongBits(stake.getOdds()));
+                hash = mix(hash, Double.doubleToLongBits(stake.getStakeAmount()));
+            }
+        }
+        return hash;
+    }
+
+    /** One multiply-xorshift round per value, enough to spread nearby odds and amounts across the key space. */
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * 0x9e3779b97f4a7c15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    /** A cached fragment with the priced content it was serialized from. */
+    private static final class Fragment {
+
+        private final String eventId;
+        private final String eventName;
+        private final String marketName;
+        private final String sport;
+        private final String league;
+        private final double bankroll;
+        private final double sumImpliedProbability;
+        private final String[] runners;
+        private final String[] providerIds;
+        private final String[] providerNames;
+        private final double[] odds;
+        private final double[] stakeAmounts;
+        private final byte[] json;
+
+        Fragment(OpportunityResponse opportunity, byte[] json) {
+            this.eventId = opportunity.getEventId();
+            this.eventName = opportunity.getEventName();
+            this.marketName = opportunity.getMarketName();
+            this.sport = opportunity.getSport();
+            this.league = opportunity.getLeague();
+            this.bankroll = opportunity.getBankroll();
+            this.sumImpliedProbability = opportunity.getSumImpliedProbability();
+            List<StakeResponse> stakes = opportunity.getStakes();
+            int count = stakes == null ? -1 : stakes.size();
+            this.runners = count < 0 ? null : new String[count];
+            this.providerIds = count < 0 ? null : new String[count];
+            this.providerNames = count < 0 ? null : new String[count];
+            this.odds = count < 0 ? null : new double[count];
+            this.stakeAmounts = count < 0 ? null : new double[count];
+            for (int i = 0; i < count; i++) {
+                StakeResponse stake = stakes.get(i);
+                runners[i] = stake.getRunner();
+                providerIds[i] = stake.getProviderId();
+                providerNames[i] = stake.getProviderName();
+                odds[i] = stake.getOdds();
+                stakeAmounts[i] = stake.getStakeAmount();
+            }
+            this.json = json;
+        }
+
+        boolean matches(OpportunityResponse opportunity) {
+            if (!Objects.equals(eventId, opportunity.getEventId())
+                || !Objects.equals(eventName, opportunity.getEventName())
+                || !Objects.equals(marketName, opportunity.getMarketName())
+                || !Objects.equals(sport, opportunity.getSport())
+                || !Objects.equals(league, opportunity.getLeague())
+                || !sameBits(bankroll, opportunity.getBankroll())
+                || !sameBits(sumImpliedProbability, opportunity.getSumImpliedProbability())) {
+                return false;
+            }
+            List<StakeResponse> stakes = opportunity.getStakes();
+            if (stakes == null || runners == null) {
+                return stakes == null && runners == null;
+            }
+            if (stakes.size() != runners.length) {
+                return false;
+            }
+            for (int i = 0; i < runners.length; i++) {
+                StakeResponse stake = stakes.get(i);
+                if (!Objects.equals(runners[i], stake.getRunner())
+                    || !Objects.equals(providerIds[i], stake.getProviderId())
+                    || !Objects.equals(providerNames[i], stake.getProviderName())
+                    || !sameBits(odds[i], stake.getOdds())
+                    || !sameBits(stakeAmounts[i], stake.getStakeAmount())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean sameBits(double a, double b) {
+            return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+        }
+    }
+
+    @JsonIgnoreProperties("opportunities")
+    private abstract static class EnvelopeMixin {
+    }
+
+    @JsonIgnoreProperties({"createdAt", "simulation"})
+    private abstract static class FragmentMixin {
+    }
+
+    @JsonIncludeProperties({"createdAt", "simulation"})
+    private abstract static class VolatileMixin {
+    }
+}
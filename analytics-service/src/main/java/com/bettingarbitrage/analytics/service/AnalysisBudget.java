@@ -0,0 +1,146 @@
+package com.bettingarbitrage.analytics.service;
+
+import com.bettingarbitrage.analytics.model.AnalyzeResponse;
+import com.bettingarbitrage.analytics.model.SweepResult;
+
+/**
+ * Time budget for one analysis. Candidates are evaluated in edge order, so once the deadline passes the remaining
+ * (lower-value) groups are skipped. Before that, each Monte Carlo run gets a fair share of half the remaining time
+ * across the groups still pending, and is shortened or skipped when its estimated cost does not fit that share.
+ *
+ * <p>A request with parameter sets evaluates each candidate for every set in the same edge-ordered pass, so all
+ * sets are cut at the same group; each set counts what it lost on its own {@link #fork()}.
+ *
+ * <p>Not thread-safe: a budget belongs to the single request thread that evaluates it.
+ */
+public final class AnalysisBudget {
+
+    /** Request header carrying the caller's remaining budget in milliseconds. */
+    public static final String DEADLINE_HEADER = "X-Analytics-Deadline-Ms";
+
+    private static final int MIN_TRIALS = 100;
+    // Initial cost guess per trial and runner until the first simulation has been measured.
+    private static final double INITIAL_NANOS_PER_SAMPLE = 200.0;
+
+    private final long deadlineNanos;
+    private final boolean limited;
+    private double nanosPerSample = INITIAL_NANOS_PER_SAMPLE;
+    private boolean skippedDiscovery;
+    private int skippedGroups;
+    private int skippedSimulations;
+    private int shortenedSimulations;
+
+    private AnalysisBudget(long deadlineNanos, boolean limited) {
+        this.deadlineNanos = deadlineNanos;
+        this.limited = limited;
+    }
+
+    public static AnalysisBudget unlimited() {
+        return new AnalysisBudget(Long.MAX_VALUE, false);
+    }
+
+    /**
+     * Budget ending {@code millis} from now; {@code null} or non-positive values mean no deadline.
+     */
+    public static AnalysisBudget ofMillis(Long millis) {
+        if (millis == null || millis <= 0) {
+            return unlimited();
+        }
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        return new AnalysisBudget(deadline, true);
+    }
+
+    /**
+     * Budget sharing this deadline with its own counters, for work evaluated on another thread or reported
+     * separately, such as one parameter set of a sweep.
+     */
+    public AnalysisBudget fork() {
+        return new AnalysisBudget(deadlineNanos, limited);
+    }
+
+    public boolean isLimited() {
+        return limited;
+    }
+
+    public long remainingMillis() {
+        if (!limited) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0L, (deadlineNanos - System.nanoTime()) / 1_000_000L);
+    }
+
+    boolean isExpired() {
+        return limited && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * Marks the analysis as cut before candidate discovery, when the deadline had already passed on arrival.
+     */
+    void skipDiscovery() {
+        skippedDiscovery = true;
+    }
+
+    void skipGroups(int count) {
+        skippedGroups += count;
+    }
+
+    int skippedGroups() {
+        return skippedGroups;
+    }
+
+    /**
+     * Number of trials that fit this group's share of the remaining budget, {@code requested} when unlimited and
+     * {@code 0} when the simulation should be skipped altogether.
+     */
+    int simulationTrials(int requested, int runners, int pendingGroups) {
+        if (!limited) {
+            return requested;
+        }
+        long remaining = deadlineNanos - System.nanoTime();
+        double share = remaining / 2.0 / Math.max(1, pendingGroups);
+        long affordable = remaining <= 0 ? 0 : (long) (share / (nanosPerSample * Math.max(1, runners)));
+        int trials = affordable >= requested ? requested : affordable < MIN_TRIALS ? 0 : (int) affordable;
+        countSimulation(requested, trials);
+        return trials;
+    }
+
+    /**
+     * Counts a simulation that ran {@code trials} of the {@code requested} trials ({@code 0}: skipped).
+     */
+    void countSimulation(int requested, int trials) {
+        if (trials == 0) {
+            skippedSimulations++;
+        } else if (trials < requested) {
+            shortenedSimulations++;
+        }
+    }
+
+    void recordSimulation(long elapsedNanos, int trials, int runners) {
+        if (trials > 0) {
+            double observed = (double) elapsedNanos / ((long) trials * Math.max(1, runners));
+            nanosPerSample = 0.5 * nanosPerSample + 0.5 * observed;
+        }
+    }
+
+    public boolean isPartial() {
+        return skippedDiscovery || skippedGroups > 0 || skippedSimulations > 0 || shortenedSimulations > 0;
+    }
+
+    public void applyTo(AnalyzeResponse response) {
+        if (isPartial()) {
+            response.setPartial(true);
+            response.setSkippedGroups(skippedGroups);
+            response.setSkippedSimulations(skippedSimulations);
+            response.setShortenedSimulations(shortenedSimulations);
+        }
+    }
+
+    public void applyTo(SweepResult sweep) {
+        if (isPartial()) {
+            sweep.setPartial(true);
+            sweep.setSkippedGroups(skippedGroups);
+            sweep.setSkippedSimulations(skippedSimulations);
+            sweep.setShortenedSimulations(shortenedSimulations);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.bettingarbitrage.analytics.service;
+
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.RankedGroup;
+
+import java.util.List;
+
+/**
+ * Receives results of {@link ArbitrageService#analyzeSnapshot} while the analysis is still running, so that a
+ * streaming response can hand each opportunity to the client as soon as it has been evaluated. Callbacks run on
+ * the analysing thread; an exception thrown from one aborts the analysis.
+ */
+public interface AnalysisListener {
+
+    AnalysisListener NONE = new AnalysisListener() {
+    };
+
+    /**
+     * Number of top-ranked groups wanted in {@link #onRanked}; {@code 0} (the default) skips the ranking callback.
+     */
+    default int rankedLimit() {
+        return 0;
+    }
+
+    /**
+     * Called once, before any evaluation, with up to {@link #rankedLimit()} qualifying groups in edge order.
+     */
+    default void onRanked(List<RankedGroup> ranked) {
+    }
+
+    /**
+     * Called for every opportunity of the primary parameters as soon as it has been evaluated.
+     */
+    default void onOpportunity(OpportunityResponse opportunity) {
+    }
+}
@@ -4,20 +4,30 @@ import com.bettingarbitrage.analytics.model.AnalyzeRequest;
 import com.bettingarbitrage.analytics.model.AnalyzeResponse;
 import com.bettingarbitrage.analytics.model.MarketSnapshot;
 import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.ParameterSet;
+import com.bettingarbitrage.analytics.model.RankedGroup;
 import com.bettingarbitrage.analytics.model.RiskMetrics;
 import com.bettingarbitrage.analytics.model.SimulateRequest;
 import com.bettingarbitrage.analytics.model.SimulationSummary;
 import com.bettingarbitrage.analytics.model.StakeResponse;
+import com.bettingarbitrage.analytics.model.SweepResult;
+import com.bettingarbitrage.analytics.profiling.AnalysisRequestEvent;
+import com.bettingarbitrage.analytics.profiling.OpportunityEvaluationEvent;
+import com.bettingarbitrage.analytics.profiling.SimulationEvent;
+import com.bettingarbitrage.analytics.tracking.OpportunityTracker;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.DoubleSummaryStatistics;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
@@ -27,12 +37,139 @@ public class ArbitrageService {
     private static final int DEFAULT_SIM_TRIALS = 2000;
     private static final double DEFAULT_RISK_FREE_RATE = 0.01; // annualised
 
+    private final OpportunityTracker opportunityTracker;
+    private final CrossMarketDetector crossMarketDetector;
+
+    public ArbitrageService(OpportunityTracker opportunityTracker, CrossMarketDetector crossMarketDetector) {
+        this.opportunityTracker = opportunityTracker;
+        this.crossMarketDetector = crossMarketDetector;
+    }
+
     public AnalyzeResponse analyzeSnapshot(AnalyzeRequest request) {
-        List<MarketSnapshot> markets = request.getMarkets();
+        return analyzeSnapshot(request, AnalysisBudget.unlimited());
+    }
+
+    /**
+     * Analyses the snapshot within {@code budget}. Whatever was evaluated before the deadline is returned, with
+     * {@code partial} and the skipped-work counters set on the response when anything was cut. The request's own
+     * parameters and every parameter set are evaluated in one pass over the candidates, so all of them are cut at
+     * the same group; each reports its own counters.
+     */
+    public AnalyzeResponse analyzeSnapshot(AnalyzeRequest request, AnalysisBudget budget) {
+        return analyzeSnapshot(request, budget, AnalysisListener.NONE);
+    }
+
+    /**
+     * As {@link #analyzeSnapshot(AnalyzeRequest, AnalysisBudget)}, reporting the ranking and each opportunity to
+     * {@code listener} as the analysis progresses. Sweep results are only part of the returned response.
+     */
+    public AnalyzeResponse analyzeSnapshot(AnalyzeRequest request, AnalysisBudget budget, AnalysisListener listener) {
+        return analyzeSnapshot(request, budget, listener, true);
+    }
+
+    /**
+     * As {@link #analyzeSnapshot(AnalyzeRequest, AnalysisBudget, AnalysisListener)}; with {@code tracked} false
+     * the snapshot is analysed without being recorded in the {@link OpportunityTracker}, as for synthetic traffic.
+     */
+    public AnalyzeResponse analyzeSnapshot(AnalyzeRequest request, AnalysisBudget budget, AnalysisListener listener, boolean tracked) {
+        // Nothing is discovered once the deadline has passed, and the tracker is left as it was rather than being
+        // told that every open opportunity closed.
+        List<ParameterSet> parameterSets = request.getParameterSets() != null ? request.getParameterSets() : List.of();
+        if (budget.isExpired()) {
+            budget.skipDiscovery();
+            AnalyzeResponse response = new AnalyzeResponse(new ArrayList<>());
+            budget.applyTo(response);
+            if (!parameterSets.isEmpty()) {
+                List<SweepResult> sweeps = new ArrayList<>(parameterSets.size());
+                for (ParameterSet parameters : parameterSets) {
+                    SweepResult sweep = new SweepResult(parameters.getId(), resolveBankroll(parameters.getBankroll()),
+                        parameters.getMinimumEdge(), new ArrayList<>());
+                    budget.applyTo(sweep);
+                    sweeps.add(sweep);
+                }
+                response.setSweeps(sweeps);
+            }
+            return response;
+        }
+        List<CandidateGroup> candidates = findCandidates(request.getMarkets());
+        if (listener.rankedLimit() > 0) {
+            listener.onRanked(rank(candidates, request.getMinimumEdge(), listener.rankedLimit()));
+        }
+
+        // The request's own parameters come first, so that their opportunities are evaluated and streamed first.
+        List<Evaluation> evaluations = new ArrayList<>(1 + parameterSets.size());
+        evaluations.add(new Evaluation(
+            resolveBankroll(request.getBankroll()), request.getMinimumEdge(), DEFAULT_SIM_TRIALS, budget.fork()));
+        for (ParameterSet parameters : parameterSets) {
+            int trials = parameters.getTrials() != null ? parameters.getTrials() : DEFAULT_SIM_TRIALS;
+            evaluations.add(new Evaluation(
+                resolveBankroll(parameters.getBankroll()), parameters.getMinimumEdge(), trials, budget.fork()));
+        }
+        evaluateCandidates(candidates, evaluations, budget, listener);
+
+        Evaluation primary = evaluations.get(0);
+        AnalyzeResponse response = new AnalyzeResponse(primary.opportunities);
+        primary.counters.applyTo(response);
+        // Every evaluated candidate yields one opportunity, so the skipped ones follow directly after them.
+        int evaluated = primary.opportunities.size();
+        List<CandidateGroup> skipped = candidates.subList(evaluated, evaluated + primary.counters.skippedGroups());
+        if (tracked) {
+            opportunityTracker.record(withoutGroups(request.getMarkets(), skipped), response.getOpportunities());
+        }
+
+        if (!parameterSets.isEmpty()) {
+            List<SweepResult> sweeps = new ArrayList<>(parameterSets.size());
+            for (int i = 0; i < parameterSets.size(); i++) {
+                Evaluation evaluation = evaluations.get(i + 1);
+                SweepResult sweep = new SweepResult(
+                    parameterSets.get(i).getId(), evaluation.bankroll, evaluation.minimumEdge, evaluation.opportunities);
+                evaluation.counters.applyTo(sweep);
+                sweeps.add(sweep);
+            }
+            response.setSweeps(sweeps);
+        }
+        return response;
+    }
+
+    /**
+     * The markets outside the skipped candidates' groups: the tracker closes open opportunities of every group in
+     * the markets it is given, and a group cut by the deadline has not been re-evaluated. A skipped cross-market
+     * cover withholds its whole event, since the tracker re-evaluates cross-market opportunities per event.
+     */
+    private List<MarketSnapshot> withoutGroups(List<MarketSnapshot> markets, List<CandidateGroup> skipped) {
+        if (skipped.isEmpty()) {
+            return markets;
+        }
+        Set<String> groups = new HashSet<>();
+        Set<String> events = new HashSet<>();
+        for (CandidateGroup candidate : skipped) {
+            RunnerQuote first = candidate.getQuotes().get(0);
+            if (candidate.getLabel() != null) {
+                events.add(first.getEventId());
+            } else {
+                groups.add(eventMarketKey(first.getEventId(), first.getMarketName()));
+            }
+        }
+        List<MarketSnapshot> evaluated = new ArrayList<>(markets.size());
+        for (MarketSnapshot market : markets) {
+            if (!events.contains(market.getEventId())
+                && !groups.contains(eventMarketKey(market.getEventId(), market.getMarketName()))) {
+                evaluated.add(market);
+            }
+        }
+        return evaluated;
+    }
+
+    /**
+     * Parameter-independent part of the analysis: best quote per runner, grouping by event/market and the
+     * implied-probability sum. Groups without an arbitrage are dropped; the rest are ordered by edge.
+     */
+    private List<CandidateGroup> findCandidates(List<MarketSnapshot> markets) {
         Map<String, RunnerQuote> bestQuotes = bestQuotesByRunner(markets);
         Map<String, List<RunnerQuote>> grouped = groupByEventAndMarket(bestQuotes);
+        AnalysisRequestEvent.recordGroups(grouped.size());
 
-        List<OpportunityResponse> opportunities = new ArrayList<>();
+        List<CandidateGroup> candidates = new ArrayList<>();
         for (List<RunnerQuote> quotes : grouped.values()) {
             if (quotes.size() < 2) {
                 continue;
@@ -44,24 +181,141 @@ public class ArbitrageService {
             if (sumImplied >= 1.0) {
                 continue;
             }
+            candidates.add(new CandidateGroup(quotes, sumImplied));
+        }
 
-            double bankroll = request.getBankroll() > 0 ? request.getBankroll() : 1000d;
-            double payoutMultiplier = 1.0 / sumImplied;
-            double guaranteedProfitFraction = payoutMultiplier - 1.0;
-            if (guaranteedProfitFraction < request.getMinimumEdge()) {
-                continue;
+        if (crossMarketDetector.isEnabled()) {
+            List<MarketSnapshot> best = new ArrayList<>(bestQuotes.size());
+            for (RunnerQuote quote : bestQuotes.values()) {
+                best.add(quote.getSource());
+            }
+            for (CrossMarketDetector.Cover cover : crossMarketDetector.detect(best)) {
+                candidates.add(CandidateGroup.crossMarket(cover));
+            }
+        }
+
+        candidates.sort(Comparator.comparingDouble(CandidateGroup::getGuaranteedProfitFraction).reversed());
+        return candidates;
+    }
+
+    /**
+     * Evaluates the candidates for every parameter set in a single pass in edge order. A candidate's stakes, risk
+     * metrics and simulation depend only on bankroll and trials, so they are computed once per distinct pair and
+     * the opportunity is shared by every set that qualifies it; sets differing only in minimum edge cost nothing
+     * extra. Opportunities of the first set are reported to {@code listener}.
+     */
+    private void evaluateCandidates(
+        List<CandidateGroup> candidates,
+        List<Evaluation> evaluations,
+        AnalysisBudget budget,
+        AnalysisListener listener
+    ) {
+        // Candidates are ordered by edge, so each set's qualifying ones form a prefix.
+        int qualifying = 0;
+        for (Evaluation evaluation : evaluations) {
+            while (evaluation.qualifying < candidates.size()
+                && candidates.get(evaluation.qualifying).getGuaranteedProfitFraction() >= evaluation.minimumEdge) {
+                evaluation.qualifying++;
+            }
+            qualifying = Math.max(qualifying, evaluation.qualifying);
+        }
+
+        OpportunityResponse[] current = new OpportunityResponse[evaluations.size()];
+        for (int index = 0; index < qualifying; index++) {
+            // Past the deadline only lower-value groups remain.
+            if (budget.isExpired()) {
+                for (Evaluation evaluation : evaluations) {
+                    evaluation.counters.skipGroups(Math.max(0, evaluation.qualifying - index));
+                }
+                break;
+            }
+            CandidateGroup candidate = candidates.get(index);
+            int pending = 0;
+            for (Evaluation evaluation : evaluations) {
+                pending += Math.max(0, evaluation.qualifying - index);
             }
 
-            List<StakeResponse> stakes = calculateStakes(quotes, bankroll, sumImplied);
-            OpportunityResponse response = buildOpportunity(quotes, bankroll, sumImplied, guaranteedProfitFraction, stakes);
-            RiskMetrics metrics = calculateRiskMetrics(quotes, stakes, bankroll, sumImplied);
-            response.setMetrics(metrics);
-            response.setSimulation(runMonteCarlo(quotes, stakes, bankroll, DEFAULT_SIM_TRIALS));
-            opportunities.add(response);
+            Arrays.fill(current, null);
+            for (int i = 0; i < evaluations.size(); i++) {
+                Evaluation evaluation = evaluations.get(i);
+                if (index >= evaluation.qualifying) {
+                    continue;
+                }
+                OpportunityResponse response = null;
+                for (int j = 0; j < i && response == null; j++) {
+                    if (current[j] != null && evaluations.get(j).sharesResultsWith(evaluation)) {
+                        response = current[j];
+                    }
+                }
+                if (response == null) {
+                    response = evaluate(candidate, evaluation.bankroll, evaluation.trials, budget, pending);
+                }
+                pending--;
+                SimulationSummary simulation = response.getSimulation();
+                evaluation.counters.countSimulation(evaluation.trials, simulation != null ? simulation.getTrials() : 0);
+                evaluation.opportunities.add(response);
+                current[i] = response;
+                if (i == 0) {
+                    listener.onOpportunity(response);
+                }
+            }
+        }
+    }
+
+    private OpportunityResponse evaluate(CandidateGroup candidate, double bankroll, int trials, AnalysisBudget budget,
+                                         int pendingGroups) {
+        OpportunityEvaluationEvent event = new OpportunityEvaluationEvent();
+        event.begin();
+        List<RunnerQuote> quotes = candidate.getQuotes();
+        double sumImplied = candidate.getSumImplied();
+        List<StakeResponse> stakes = calculateStakes(quotes, bankroll, sumImplied);
+        OpportunityResponse response = buildOpportunity(quotes, bankroll, sumImplied, candidate.getGuaranteedProfitFraction(), stakes);
+        if (candidate.getLabel() != null) {
+            response.setMarketName(candidate.getLabel());
+            response.setCrossMarket(true);
+        }
+        RiskMetrics metrics = calculateRiskMetrics(quotes, stakes, bankroll, sumImplied);
+        response.setMetrics(metrics);
+        int affordableTrials = budget.simulationTrials(trials, quotes.size(), pendingGroups);
+        if (affordableTrials > 0) {
+            long simulationStart = System.nanoTime();
+            response.setSimulation(runMonteCarlo(quotes, stakes, bankroll, affordableTrials));
+            budget.recordSimulation(System.nanoTime() - simulationStart, affordableTrials, quotes.size());
+        }
+
+        if (event.shouldCommit()) {
+            event.eventId = response.getEventId();
+            event.marketName = response.getMarketName();
+            event.runners = quotes.size();
+            event.edge = candidate.getGuaranteedProfitFraction();
+            event.commit();
         }
+        return response;
+    }
+
+    private List<RankedGroup> rank(List<CandidateGroup> candidates, double minimumEdge, int limit) {
+        List<RankedGroup> ranked = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (CandidateGroup candidate : candidates) {
+            if (ranked.size() == limit || candidate.getGuaranteedProfitFraction() < minimumEdge) {
+                break;
+            }
+            RunnerQuote exemplar = candidate.getQuotes().get(0);
+            RankedGroup group = new RankedGroup();
+            group.setEventId(exemplar.getEventId());
+            group.setEventName(exemplar.getEventName());
+            group.setMarketName(candidate.getLabel() != null ? candidate.getLabel() : exemplar.getMarketName());
+            group.setSumImpliedProbability(candidate.getSumImplied());
+            group.setGuaranteedProfitFraction(candidate.getGuaranteedProfitFraction());
+            if (candidate.getLabel() != null) {
+                group.setCrossMarket(true);
+            }
+            ranked.add(group);
+        }
+        return ranked;
+    }
 
-        opportunities.sort(Comparator.comparingDouble(OpportunityResponse::getGuaranteedProfitFraction).reversed());
-        return new AnalyzeResponse(opportunities);
+    private double resolveBankroll(double bankroll) {
+        return bankroll > 0 ? bankroll : 1000d;
     }
 
     public SimulationSummary runSimulation(SimulateRequest request) {
@@ -209,6 +463,8 @@ public class ArbitrageService {
     }
 
     private SimulationSummary runMonteCarlo(List<RunnerQuote> quotes, List<StakeResponse> stakes, double bankroll, int trials) {
+        SimulationEvent event = new SimulationEvent();
+        event.begin();
         List<Double> probabilities = new ArrayList<>();
         double normaliser = quotes.stream().mapToDouble(RunnerQuote::getImpliedProbability).sum();
         for (RunnerQuote quote : quotes) {
@@ -252,6 +508,12 @@ public class ArbitrageService {
         summary.setPPositive((double) positiveCount / trials);
         summary.setPercentile5(percentile5);
         summary.setPercentile95(percentile95);
+
+        if (event.shouldCommit()) {
+            event.trials = trials;
+            event.runners = quotes.size();
+            event.commit();
+        }
         return summary;
     }
 
@@ -284,6 +546,82 @@ public class ArbitrageService {
         return eventId + "::" + marketName.toLowerCase(Locale.ROOT);
     }
 
+    /**
+     * One set of parameters to evaluate the candidates with, collecting its opportunities and cut-work counters.
+     */
+    private static class Evaluation {
+        private final double bankroll;
+        private final double minimumEdge;
+        private final int trials;
+        private final AnalysisBudget counters;
+        private final List<OpportunityResponse> opportunities = new ArrayList<>();
+        private int qualifying;
+
+        Evaluation(double bankroll, double minimumEdge, int trials, AnalysisBudget counters) {
+            this.bankroll = bankroll;
+            this.minimumEdge = minimumEdge;
+            this.trials = trials;
+            this.counters = counters;
+        }
+
+        boolean sharesResultsWith(Evaluation other) {
+            return bankroll == other.bankroll && trials == other.trials;
+        }
+    }
+
+    private static class CandidateGroup {
+        private final List<RunnerQuote> quotes;
+        private final double sumImplied;
+        private final double guaranteedProfitFraction;
+        private final String label;
+
+        CandidateGroup(List<RunnerQuote> quotes, double sumImplied) {
+            this(quotes, sumImplied, null);
+        }
+
+        private CandidateGroup(List<RunnerQuote> quotes, double sumImplied, String label) {
+            this.quotes = quotes;
+            this.sumImplied = sumImplied;
+            this.guaranteedProfitFraction = 1.0 / sumImplied - 1.0;
+            this.label = label;
+        }
+
+        static CandidateGroup crossMarket(CrossMarketDetector.Cover cover) {
+            List<RunnerQuote> legs = new ArrayList<>(cover.getLegs().size());
+            for (MarketSnapshot leg : cover.getLegs()) {
+                legs.add(new RunnerQuote(
+                    leg.getEventId(),
+                    leg.getEventName(),
+                    leg.getMarketName(),
+                    leg.getSport(),
+                    leg.getLeague(),
+                    leg.getRunner().getName() + " (" + leg.getMarketName() + ")",
+                    leg.getProvider().getId(),
+                    leg.getProvider().getName(),
+                    leg.getOddsDecimal(),
+                    1.0 / leg.getOddsDecimal()
+                ));
+            }
+            return new CandidateGroup(legs, cover.getSumImplied(), cover.getLabel());
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public List<RunnerQuote> getQuotes() {
+            return quotes;
+        }
+
+        public double getSumImplied() {
+            return sumImplied;
+        }
+
+        public double getGuaranteedProfitFraction() {
+            return guaranteedProfitFraction;
+        }
+    }
+
     private static class RunnerQuote {
         private final String eventId;
         private final String eventName;
@@ -296,6 +634,7 @@ public class ArbitrageService {
         private final String providerName;
         private final double odds;
         private final double impliedProbability;
+        private final MarketSnapshot source;
 
         RunnerQuote(MarketSnapshot snapshot) {
             this.eventId = snapshot.getEventId();
@@ -309,6 +648,7 @@ public class ArbitrageService {
             this.providerName = snapshot.getProvider().getName();
             this.odds = snapshot.getOddsDecimal();
             this.impliedProbability = 1.0 / snapshot.getOddsDecimal();
+            this.source = snapshot;
         }
 
         RunnerQuote(String eventId,
@@ -333,6 +673,7 @@ public class ArbitrageService {
             this.providerName = providerName;
             this.odds = odds;
             this.impliedProbability = impliedProbability;
+            this.source = null;
         }
 
         public String getEventId() {
@@ -378,5 +719,9 @@ public class ArbitrageService {
         public double getImpliedProbability() {
             return impliedProbability;
         }
+
+        public MarketSnapshot getSource() {
+            return source;
+        }
     }
 }
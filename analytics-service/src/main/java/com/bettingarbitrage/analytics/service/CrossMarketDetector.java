@@ -0,0 +1,465 @@
+package com.bettingarbitrage.analytics.service;
+
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Finds arbitrage across related markets of the same event. Every recognised runner is mapped onto one of two
+ * integer outcome dimensions - the score margin (home minus away: results, double chance, draw-no-bet, spreads)
+ * or the score total (over/under lines) - as the set of outcomes on which it wins. Any selection of runners whose
+ * winning sets together cover the whole dimension is a Dutch book when the implied probabilities sum below 1;
+ * overlaps (middles) only add upside. Dimensions are kept apart per period and statistic (see
+ * {@link #scope(String)}), and handicap/total lines come only from the quote's {@code line} or a trailing signed
+ * handicap ({@code "Over 2.5"} for totals) on the runner, never from digits elsewhere in a team or market name.
+ * Only whole and half lines are classified: a quarter line (x.25/x.75) is a split stake that half-wins or
+ * half-pushes at the neighbouring integer, which a set of winning outcomes cannot express.
+ *
+ * <p>The search per event and axis is a branch-and-bound over runners sorted by implied probability: a branch
+ * is cut as soon as its partial sum plus the cheapest remaining leg can no longer beat the best cover found. Pushes
+ * and draw-no-bet refunds are treated as losses, so reported edges are lower bounds.
+ */
+@Component
+public class CrossMarketDetector {
+
+    static final long MIN = Long.MIN_VALUE / 4;
+    static final long MAX = Long.MAX_VALUE / 4;
+    private static final int PARALLEL_THRESHOLD = 32;
+    private static final Pattern TOTAL_RUNNER = Pattern.compile("(over|under|o|u)(?:\\s+(\\d+(?:\\.\\d+)?))?");
+    private static final Pattern TRAILING_HANDICAP = Pattern.compile("(?:^|[\\s(])([+-]\\d+(?:\\.\\d+)?)\\)?$");
+    private static final Pattern DRAW_NO_BET = Pattern.compile("\\bdraw no bet\\b|\\bdnb\\b");
+    private static final Pattern DOUBLE_CHANCE = Pattern.compile("\\bdouble chance\\b");
+    private static final Pattern TOTAL_NAME = Pattern.compile("\\btotals?\\b|\\bover/under\\b");
+    private static final Pattern SPREAD_NAME = Pattern.compile("\\b(?:handicap|spread|run line|puck line)\\b");
+    private static final Pattern RESULT_NAME = Pattern.compile("\\b(?:result|1x2|3-way|moneyline|money line|match winner)\\b");
+    private static final Pattern UNSUPPORTED = Pattern.compile(
+        "\\b(?:player|team total|home total|away total|scorer|correct score|exact|race to|first to|to score|both teams"
+            + "|odd/even|ht/ft|half time/full time|winning margin|outright|to qualify)\\b");
+    private static final Pattern PERIOD = Pattern.compile(
+        "\\b(1st|2nd|3rd|4th|5th|first|second|third|fourth|fifth)\\s+(half|quarter|period|set|inning|innings|map|game)\\b");
+    private static final Pattern HALF_TIME = Pattern.compile("\\bhalf[- ]?time\\b");
+    private static final Pattern EXTRA_TIME = Pattern.compile("\\b(?:overtime|extra time|incl\\.? ot|penalties)\\b");
+    private static final Pattern STATISTIC = Pattern.compile(
+        "\\b(corners?|cards?|bookings?|shots on target|shots?|fouls?|offsides?|throw-ins?|aces?|double faults?"
+            + "|tackles?|saves?|kills?|frames?|games?|sets?|maps?|rounds?)\\b");
+    private static final Pattern TEAM_SEPARATOR = Pattern.compile("\\s+(?:vs\\.?|v)\\s+", Pattern.CASE_INSENSITIVE);
+
+    private final boolean enabled;
+    private final int maxLegs;
+
+    public CrossMarketDetector(
+        @Value("${analytics.cross-market.enabled:false}") boolean enabled,
+        @Value("${analytics.cross-market.max-legs:4}") int maxLegs
+    ) {
+        this.enabled = enabled;
+        this.maxLegs = maxLegs;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cheapest cross-market cover per event and dimension whose implied probabilities sum below 1.
+     * {@code quotes} should already be reduced to the best price per event, market and runner.
+     */
+    public List<Cover> detect(Collection<MarketSnapshot> quotes) {
+        Map<String, List<MarketSnapshot>> byEvent = new HashMap<>();
+        for (MarketSnapshot quote : quotes) {
+            byEvent.computeIfAbsent(quote.getEventId(), k -> new ArrayList<>()).add(quote);
+        }
+
+        // Market names repeat across providers and events; classify each distinct one once per call.
+        Map<String, Optional<MarketClass>> classes = new ConcurrentHashMap<>();
+        Stream<List<MarketSnapshot>> events = byEvent.size() >= PARALLEL_THRESHOLD
+            ? byEvent.values().parallelStream()
+            : byEvent.values().stream();
+        return events
+            .flatMap(eventQuotes -> searchEvent(eventQuotes, classes).stream())
+            .collect(Collectors.toList());
+    }
+
+    private List<Cover> searchEvent(List<MarketSnapshot> quotes, Map<String, Optional<MarketClass>> classes) {
+        String[] teams = teams(quotes.get(0).getEventName());
+        Map<Axis, Map<String, Leg>> legsByAxis = new HashMap<>();
+        for (MarketSnapshot quote : quotes) {
+            String type = quote.getMarketType() == null ? "" : quote.getMarketType();
+            MarketClass market = classes.computeIfAbsent(type + '\u0000' + quote.getMarketName(),
+                k -> Optional.ofNullable(marketClass(quote.getMarketName(), quote.getMarketType()))).orElse(null);
+            Leg leg = market == null ? null : classify(quote, teams, market);
+            if (leg == null) {
+                continue;
+            }
+            // Only the best price for a given winning set can be part of the cheapest cover.
+            legsByAxis.computeIfAbsent(leg.axis, k -> new LinkedHashMap<>())
+                .merge(leg.signature(), leg, (a, b) -> a.implied <= b.implied ? a : b);
+        }
+
+        List<Cover> covers = new ArrayList<>();
+        for (Map.Entry<Axis, Map<String, Leg>> entry : legsByAxis.entrySet()) {
+            List<Leg> legs = new ArrayList<>(entry.getValue().values());
+            if (legs.size() < 2 || distinctMarkets(legs) < 2) {
+                continue;
+            }
+            legs.sort(Comparator.comparingDouble(leg -> leg.implied));
+            Search search = new Search(entry.getKey().dimension(), legs);
+            search.run(0, new ArrayList<>(), 0.0);
+            if (search.best != null) {
+                covers.add(new Cover(search.best.stream().map(leg -> leg.quote).collect(Collectors.toList()), search.bestSum));
+            }
+        }
+        return covers;
+    }
+
+    private final class Search {
+        private final Dimension dimension;
+        private final List<Leg> legs;
+        private List<Leg> best;
+        private double bestSum = 1.0;
+
+        Search(Dimension dimension, List<Leg> legs) {
+            this.dimension = dimension;
+            this.legs = legs;
+        }
+
+        void run(int from, List<Leg> chosen, double sum) {
+            if (!chosen.isEmpty() && covers(dimension, chosen)) {
+                if (distinctMarkets(chosen) >= 2 && sum < bestSum) {
+                    best = new ArrayList<>(chosen);
+                    bestSum = sum;
+                }
+                return; // supersets only cost more
+            }
+            if (chosen.size() == maxLegs) {
+                return;
+            }
+            for (int i = from; i < legs.size(); i++) {
+                Leg leg = legs.get(i);
+                // Legs are sorted by implied probability, so once one is too expensive all later ones are.
+                if (sum + leg.implied >= bestSum) {
+                    break;
+                }
+                chosen.add(leg);
+                run(i + 1, chosen, sum + leg.implied);
+                chosen.remove(chosen.size() - 1);
+            }
+        }
+    }
+
+    private static boolean covers(Dimension dimension, List<Leg> legs) {
+        List<long[]> intervals = new ArrayList<>();
+        for (Leg leg : legs) {
+            intervals.addAll(leg.wins);
+        }
+        intervals.sort(Comparator.comparingLong(interval -> interval[0]));
+        long cursor = dimension.lowerBound;
+        for (long[] interval : intervals) {
+            if (interval[0] > cursor) {
+                return false;
+            }
+            cursor = Math.max(cursor, interval[1] + 1);
+            if (cursor > MAX) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int distinctMarkets(List<Leg> legs) {
+        Set<String> markets = new HashSet<>();
+        for (Leg leg : legs) {
+            markets.add(leg.quote.getMarketName().toLowerCase(Locale.ROOT));
+        }
+        return markets.size();
+    }
+
+    /**
+     * Maps a quote onto its axis and winning set. The market kind comes from {@code marketType}, with the market
+     * name only deciding double chance and draw-no-bet (or standing in when the type is missing or "other"); the
+     * axis is further keyed by the period and statistic named in the market, so a first-half result never meets a
+     * full-time one and corners never meet goals. Markets whose outcomes are not the event's score (player and
+     * team props, outrights, correct score, ...) are not classified.
+     */
+    static Leg classify(MarketSnapshot quote, String[] teams) {
+        MarketClass market = marketClass(quote.getMarketName(), quote.getMarketType());
+        return market == null ? null : classify(quote, teams, market);
+    }
+
+    private static Leg classify(MarketSnapshot quote, String[] teams, MarketClass market) {
+        Kind kind = market.kind();
+        String runner = normalise(quote.getRunner().getName());
+
+        if (kind == Kind.TOTAL) {
+            Matcher matcher = TOTAL_RUNNER.matcher(runner);
+            if (!matcher.matches()) {
+                return null;
+            }
+            Double line = matcher.group(2) != null ? Double.valueOf(matcher.group(2)) : quote.getLine();
+            if (!wholeOrHalf(line)) {
+                return null;
+            }
+            Axis axis = new Axis(Dimension.TOTAL, market.scope());
+            if (matcher.group(1).startsWith("o")) {
+                return new Leg(quote, axis, List.of(new long[] {(long) Math.floor(line) + 1, MAX}));
+            }
+            return new Leg(quote, axis, List.of(new long[] {MIN, (long) Math.ceil(line) - 1}));
+        }
+
+        Axis axis = new Axis(Dimension.MARGIN, market.scope());
+        Side side = side(runner, quote.getRunner().getId(), teams);
+        if (kind == Kind.SPREAD) {
+            if (side == Side.DRAW || side == null) {
+                return null;
+            }
+            // A trailing signed handicap belongs to that runner; the line field is the home handicap.
+            Matcher handicap = TRAILING_HANDICAP.matcher(runner);
+            Double line = handicap.find() ? Double.valueOf(handicap.group(1)) : null;
+            if (line == null && quote.getLine() != null) {
+                line = side == Side.AWAY ? -quote.getLine() : quote.getLine();
+            }
+            if (!wholeOrHalf(line)) {
+                return null;
+            }
+            // A handicap h on the home side wins when margin + h > 0; on the away side when margin < h.
+            if (side == Side.HOME) {
+                return new Leg(quote, axis, List.of(new long[] {(long) Math.floor(-line) + 1, MAX}));
+            }
+            return new Leg(quote, axis, List.of(new long[] {MIN, (long) Math.ceil(line) - 1}));
+        }
+
+        if (kind == Kind.DOUBLE_CHANCE) {
+            String compact = runner.replace(" ", "");
+            boolean draw = compact.contains("x") && compact.length() <= 2 || runner.contains("draw");
+            if (compact.equals("1x") || draw && runnerMentions(runner, teams, 0)) {
+                return new Leg(quote, axis, List.of(new long[] {0, MAX}));
+            }
+            if (compact.equals("x2") || draw && runnerMentions(runner, teams, 1)) {
+                return new Leg(quote, axis, List.of(new long[] {MIN, 0}));
+            }
+            if (compact.equals("12") || runnerMentions(runner, teams, 0) && runnerMentions(runner, teams, 1)) {
+                return new Leg(quote, axis, List.of(new long[] {MIN, -1}, new long[] {1, MAX}));
+            }
+            return null;
+        }
+
+        if (side == null) {
+            return null;
+        }
+        return switch (side) {
+            case HOME -> new Leg(quote, axis, List.of(new long[] {1, MAX}));
+            case AWAY -> new Leg(quote, axis, List.of(new long[] {MIN, -1}));
+            case DRAW -> kind == Kind.DRAW_NO_BET ? null : new Leg(quote, axis, List.of(new long[] {0, 0}));
+        };
+    }
+
+    private static boolean wholeOrHalf(Double line) {
+        return line != null && Double.isFinite(line) && line * 2 == Math.rint(line * 2);
+    }
+
+    private static MarketClass marketClass(String marketName, String marketType) {
+        String market = normalise(marketName);
+        if (UNSUPPORTED.matcher(market).find()) {
+            return null;
+        }
+        Kind kind = kind(market, marketType == null ? "" : marketType.toLowerCase(Locale.ROOT));
+        return kind == null ? null : new MarketClass(kind, scope(market));
+    }
+
+    private static Kind kind(String market, String type) {
+        if (DRAW_NO_BET.matcher(market).find()) {
+            return Kind.DRAW_NO_BET;
+        }
+        if (DOUBLE_CHANCE.matcher(market).find()) {
+            return Kind.DOUBLE_CHANCE;
+        }
+        switch (type) {
+            case "total":
+                return Kind.TOTAL;
+            case "spread":
+                return Kind.SPREAD;
+            case "moneyline":
+                return Kind.RESULT;
+            default:
+                break;
+        }
+        if (TOTAL_NAME.matcher(market).find()) {
+            return Kind.TOTAL;
+        }
+        if (SPREAD_NAME.matcher(market).find()) {
+            return Kind.SPREAD;
+        }
+        return RESULT_NAME.matcher(market).find() ? Kind.RESULT : null;
+    }
+
+    /**
+     * Period and statistic of a market, e.g. {@code "2half|corner"}; empty for the full-time score.
+     */
+    static String scope(String market) {
+        StringBuilder scope = new StringBuilder();
+        String rest = market;
+        Matcher period = PERIOD.matcher(rest);
+        if (period.find()) {
+            scope.append(ordinal(period.group(1))).append(singular(period.group(2)));
+            rest = period.replaceAll(" ");
+        } else if (HALF_TIME.matcher(rest).find()) {
+            scope.append("1half");
+        }
+        if (EXTRA_TIME.matcher(rest).find()) {
+            scope.append("+et");
+        }
+        Matcher statistic = STATISTIC.matcher(rest);
+        if (statistic.find()) {
+            scope.append('|').append(singular(statistic.group(1).replace('-', ' ')));
+        }
+        return scope.toString();
+    }
+
+    private static String ordinal(String token) {
+        return switch (token) {
+            case "first" -> "1";
+            case "second" -> "2";
+            case "third" -> "3";
+            case "fourth" -> "4";
+            case "fifth" -> "5";
+            default -> token.substring(0, token.length() - 2);
+        };
+    }
+
+    private static String singular(String token) {
+        return token.endsWith("s") ? token.substring(0, token.length() - 1) : token;
+    }
+
+    private static String normalise(String name) {
+        return name.toLowerCase(Locale.ROOT).replace('\u2212', '-').trim();
+    }
+
+    private static Side side(String runner, String runnerId, String[] teams) {
+        String id = runnerId == null ? "" : runnerId.toLowerCase(Locale.ROOT);
+        if (runner.equals("draw") || runner.equals("x") || runner.equals("tie") || id.equals("draw")) {
+            return Side.DRAW;
+        }
+        if (runner.startsWith("home") || id.equals("home") || runnerMentions(runner, teams, 0)) {
+            return Side.HOME;
+        }
+        if (runner.startsWith("away") || id.equals("away") || runnerMentions(runner, teams, 1)) {
+            return Side.AWAY;
+        }
+        return null;
+    }
+
+    private static boolean runnerMentions(String runner, String[] teams, int index) {
+        return teams != null && !teams[index].isEmpty() && runner.contains(teams[index]);
+    }
+
+    private static String[] teams(String eventName) {
+        if (eventName == null) {
+            return null;
+        }
+        String name = eventName.toLowerCase(Locale.ROOT);
+        String[] parts = TEAM_SEPARATOR.split(name, 2);
+        if (parts.length == 2) {
+            return new String[] {parts[0].trim(), parts[1].trim()};
+        }
+        parts = name.split("\\s+@\\s+", 2);
+        if (parts.length == 2) {
+            return new String[] {parts[1].trim(), parts[0].trim()}; // "Away @ Home"
+        }
+        return null;
+    }
+
+    enum Dimension {
+        MARGIN(MIN),
+        TOTAL(0);
+
+        private final long lowerBound;
+
+        Dimension(long lowerBound) {
+            this.lowerBound = lowerBound;
+        }
+    }
+
+    private enum Side {
+        HOME, AWAY, DRAW
+    }
+
+    private enum Kind {
+        RESULT, DRAW_NO_BET, DOUBLE_CHANCE, SPREAD, TOTAL
+    }
+
+    private record MarketClass(Kind kind, String scope) {
+    }
+
+    /**
+     * Outcome dimension plus the period/statistic it is measured on; only legs on the same axis can cover each other.
+     */
+    record Axis(Dimension dimension, String scope) {
+    }
+
+    static final class Leg {
+        private final MarketSnapshot quote;
+        private final Axis axis;
+        private final List<long[]> wins;
+        private final double implied;
+
+        Leg(MarketSnapshot quote, Axis axis, List<long[]> wins) {
+            this.quote = quote;
+            this.axis = axis;
+            this.wins = wins;
+            this.implied = 1.0 / quote.getOddsDecimal();
+        }
+
+        Axis getAxis() {
+            return axis;
+        }
+
+        List<long[]> getWins() {
+            return wins;
+        }
+
+        String signature() {
+            return wins.stream().map(w -> w[0] + ".." + w[1]).collect(Collectors.joining(","));
+        }
+    }
+
+    public static final class Cover {
+        private final List<MarketSnapshot> legs;
+        private final double sumImplied;
+
+        Cover(List<MarketSnapshot> legs, double sumImplied) {
+            this.legs = legs;
+            this.sumImplied = sumImplied;
+        }
+
+        public List<MarketSnapshot> getLegs() {
+            return legs;
+        }
+
+        public double getSumImplied() {
+            return sumImplied;
+        }
+
+        public String getLabel() {
+            return legs.stream()
+                .map(MarketSnapshot::getMarketName)
+                .distinct()
+                .collect(Collectors.joining(" + "));
+        }
+    }
+}
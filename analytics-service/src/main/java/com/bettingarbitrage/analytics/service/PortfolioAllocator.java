@@ -0,0 +1,248 @@
+package com.bettingarbitrage.analytics.service;
+
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.PortfolioAllocation;
+import com.bettingarbitrage.analytics.model.PortfolioSettings;
+import com.bettingarbitrage.analytics.model.PositionAllocation;
+import com.bettingarbitrage.analytics.model.StakeResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits one bankroll across all current opportunities instead of sizing each against the full bankroll.
+ *
+ * <p>The solver is a progressive water-fill: the opportunities that can still grow rise together in proportion to
+ * {@code edge x kellyFraction}, each up to the per-opportunity cap, until the budget is spent or the first provider
+ * reaches its limit. Each round solves that level exactly over the opportunities sorted once by score, so every
+ * opportunity that reaches the cap freezes in the same round, and the opportunities staking with a provider at its
+ * limit freeze with it; nothing is ever scaled back. A saturated provider keeps no active opportunities, so the loop
+ * ends after at most {@code providers + 2} rounds of {@code O(legs + n x providers)} after one {@code O(n log n)}
+ * sort.
+ */
+@Component
+public class PortfolioAllocator {
+
+    private static final double EPSILON = 1e-9;
+
+    public PortfolioAllocation allocate(List<OpportunityResponse> opportunities, double bankroll, PortfolioSettings settings) {
+        int n = opportunities.size();
+        Map<String, Integer> providerIndex = new HashMap<>();
+        int[][] legProviders = new int[n][];
+        double[][] legFractions = new double[n][];
+        double[] score = new double[n];
+
+        for (int k = 0; k < n; k++) {
+            OpportunityResponse opportunity = opportunities.get(k);
+            List<StakeResponse> stakes = opportunity.getStakes();
+            legProviders[k] = new int[stakes.size()];
+            legFractions[k] = new double[stakes.size()];
+            for (int leg = 0; leg < stakes.size(); leg++) {
+                StakeResponse stake = stakes.get(leg);
+                legProviders[k][leg] = providerIndex.computeIfAbsent(stake.getProviderId(), id -> providerIndex.size());
+                legFractions[k][leg] = stake.getStakeFraction();
+            }
+            Double kelly = opportunity.getMetrics() != null ? opportunity.getMetrics().getKellyFraction() : null;
+            double edge = Math.max(0.0, opportunity.getGuaranteedProfitFraction());
+            score[k] = kelly != null && kelly > 0 ? edge * kelly : edge;
+        }
+
+        String[] providerIds = new String[providerIndex.size()];
+        providerIndex.forEach((id, index) -> providerIds[index] = id);
+        double[] providerLimit = new double[providerIds.length];
+        for (int p = 0; p < providerIds.length; p++) {
+            Double explicit = settings.getProviderLimits() != null ? settings.getProviderLimits().get(providerIds[p]) : null;
+            providerLimit[p] = explicit != null ? explicit : settings.getMaxProviderExposure() * bankroll;
+        }
+
+        double cap = settings.getMaxOpportunityFraction() * bankroll;
+        double[] amount = new double[n];
+        boolean[] frozen = new boolean[n];
+        for (int k = 0; k < n; k++) {
+            frozen[k] = score[k] <= 0;
+        }
+        int[] byScore = byDescendingScore(score);
+
+        double[] exposure = new double[providerIds.length];
+        int iterations = 0;
+        while (iterations <= providerIds.length + 1) {
+            iterations++;
+            double remaining = bankroll;
+            double budget = bankroll;
+            boolean active = false;
+            Arrays.fill(exposure, 0.0);
+            for (int k = 0; k < n; k++) {
+                remaining -= amount[k];
+                if (frozen[k]) {
+                    budget -= amount[k];
+                    for (int leg = 0; leg < legProviders[k].length; leg++) {
+                        exposure[legProviders[k][leg]] += amount[k] * legFractions[k][leg];
+                    }
+                } else {
+                    active = true;
+                }
+            }
+            // Relative to the bankroll: a solved level spends the budget only up to rounding in the sum.
+            if (remaining <= EPSILON * Math.max(1.0, bankroll) || !active) {
+                break;
+            }
+
+            fill(byScore, score, legProviders, legFractions, budget, cap, exposure, providerLimit, amount, frozen);
+            Arrays.fill(exposure, 0.0);
+            for (int k = 0; k < n; k++) {
+                for (int leg = 0; leg < legProviders[k].length; leg++) {
+                    exposure[legProviders[k][leg]] += amount[k] * legFractions[k][leg];
+                }
+            }
+            for (int k = 0; k < n; k++) {
+                for (int leg = 0; leg < legProviders[k].length && !frozen[k]; leg++) {
+                    int provider = legProviders[k][leg];
+                    frozen[k] = exposure[provider] >= providerLimit[provider] - EPSILON;
+                }
+            }
+        }
+
+        return buildAllocation(opportunities, amount, bankroll, legProviders, providerIds, iterations);
+    }
+
+    /**
+     * Raises the active opportunities together, each at {@code level x score} up to {@code cap}, until they spend
+     * {@code budget} or the first provider reaches its limit, and freezes the ones that reach the cap. Spend and
+     * exposure are piecewise linear in the level with a kink where each opportunity reaches the cap; walking the
+     * opportunities in descending score visits the kinks in ascending order, so each segment is solved directly.
+     */
+    private static void fill(
+        int[] byScore,
+        double[] score,
+        int[][] legProviders,
+        double[][] legFractions,
+        double budget,
+        double cap,
+        double[] frozenExposure,
+        double[] providerLimit,
+        double[] amount,
+        boolean[] frozen
+    ) {
+        int providers = providerLimit.length;
+        int[] order = new int[score.length];
+        int active = 0;
+        for (int k : byScore) {
+            if (!frozen[k]) {
+                order[active++] = k;
+            }
+        }
+        // Score and per-provider exposure per unit of level of the opportunities from position i on, summed from the
+        // smallest score up; subtracting capped scores from a running total would cancel to noise on skewed scores.
+        double[] growing = new double[active + 1];
+        double[] slope = new double[(active + 1) * providers];
+        for (int i = active - 1; i >= 0; i--) {
+            int k = order[i];
+            growing[i] = growing[i + 1] + score[k];
+            System.arraycopy(slope, (i + 1) * providers, slope, i * providers, providers);
+            for (int leg = 0; leg < legProviders[k].length; leg++) {
+                slope[i * providers + legProviders[k][leg]] += score[k] * legFractions[k][leg];
+            }
+        }
+
+        // Exposure fixed so far per provider: frozen opportunities plus the ones already at the cap.
+        double[] fixed = frozenExposure.clone();
+        for (int i = 0; i < active; i++) {
+            int k = order[i];
+            double level = budget / growing[i];
+            for (int p = 0; p < providers; p++) {
+                double rate = slope[i * providers + p];
+                if (rate > 0) {
+                    level = Math.min(level, (providerLimit[p] - fixed[p]) / rate);
+                }
+            }
+            if (level * score[k] < cap) {
+                for (int j = i; j < active; j++) {
+                    amount[order[j]] = Math.max(0.0, level) * score[order[j]];
+                }
+                return;
+            }
+            amount[k] = cap;
+            frozen[k] = true;
+            budget -= cap;
+            for (int leg = 0; leg < legProviders[k].length; leg++) {
+                fixed[legProviders[k][leg]] += cap * legFractions[k][leg];
+            }
+        }
+    }
+
+    private static int[] byDescendingScore(double[] score) {
+        Integer[] order = new Integer[score.length];
+        for (int k = 0; k < order.length; k++) {
+            order[k] = k;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(score[b], score[a]));
+        int[] indices = new int[order.length];
+        for (int k = 0; k < order.length; k++) {
+            indices[k] = order[k];
+        }
+        return indices;
+    }
+
+    private PortfolioAllocation buildAllocation(
+        List<OpportunityResponse> opportunities,
+        double[] amount,
+        double bankroll,
+        int[][] legProviders,
+        String[] providerIds,
+        int iterations
+    ) {
+        double[] exposure = new double[providerIds.length];
+        double allocated = 0.0;
+        double guaranteedProfit = 0.0;
+        List<PositionAllocation> positions = new ArrayList<>();
+        for (int k = 0; k < opportunities.size(); k++) {
+            if (amount[k] <= EPSILON) {
+                continue;
+            }
+            OpportunityResponse opportunity = opportunities.get(k);
+            List<StakeResponse> stakes = new ArrayList<>(opportunity.getStakes().size());
+            for (int leg = 0; leg < opportunity.getStakes().size(); leg++) {
+                StakeResponse source = opportunity.getStakes().get(leg);
+                StakeResponse stake = new StakeResponse();
+                stake.setRunner(source.getRunner());
+                stake.setProviderId(source.getProviderId());
+                stake.setProviderName(source.getProviderName());
+                stake.setOdds(source.getOdds());
+                stake.setStakeFraction(source.getStakeFraction());
+                stake.setStakeAmount(amount[k] * source.getStakeFraction());
+                stake.setPayout(stake.getStakeAmount() * source.getOdds());
+                stakes.add(stake);
+                exposure[legProviders[k][leg]] += stake.getStakeAmount();
+            }
+
+            PositionAllocation position = new PositionAllocation();
+            position.setEventId(opportunity.getEventId());
+            position.setMarketName(opportunity.getMarketName());
+            position.setGuaranteedProfitFraction(opportunity.getGuaranteedProfitFraction());
+            position.setAmount(amount[k]);
+            position.setStakes(stakes);
+            positions.add(position);
+            allocated += amount[k];
+            guaranteedProfit += amount[k] * opportunity.getGuaranteedProfitFraction();
+        }
+
+        Map<String, Double> providerExposure = new LinkedHashMap<>();
+        for (int p = 0; p < providerIds.length; p++) {
+            providerExposure.put(providerIds[p], exposure[p]);
+        }
+
+        PortfolioAllocation allocation = new PortfolioAllocation();
+        allocation.setBankroll(bankroll);
+        allocation.setAllocated(allocated);
+        allocation.setGuaranteedProfit(guaranteedProfit);
+        allocation.setIterations(iterations);
+        allocation.setProviderExposure(providerExposure);
+        allocation.setPositions(positions);
+        return allocation;
+    }
+}
@@ -0,0 +1,313 @@
+package com.bettingarbitrage.analytics.tracking;
+
+import com.bettingarbitrage.analytics.model.LifetimeReport;
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.StakeResponse;
+import com.bettingarbitrage.analytics.model.TrackedOpportunity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Follows opportunities across successive analyses. An opportunity is identified by its event, market and the
+ * provider chosen for each runner; while it stays open its first/last sighting, peak edge and a fixed-length edge
+ * series are kept in preallocated primitive arrays indexed by slot. An opportunity closes when a later analysis
+ * covers its event/market without producing it (or after the idle timeout); its lifetime - from first sighting
+ * until the analysis that no longer found it - goes into a fixed ring of recent lifetimes and the slot is reused.
+ * Memory is therefore bounded by {@code max-tracked} and {@code lifetime-samples}, however many arbs come and go.
+ * <p>
+ * Sightings are timed by the server clock when the analysis completes, never by a client-supplied snapshot time,
+ * so lifetimes from REST, gRPC and scheduled analyses are comparable. Open slots are also chained from least to
+ * most recently seen, so a full tracker evicts the stalest opportunity without scanning.
+ */
+@Component
+public class OpportunityTracker {
+
+    private final int capacity;
+    private final int seriesLength;
+    private final long idleTimeoutMillis;
+
+    private final String[] keys;
+    private final String[] groupKeys;
+    private final String[] eventIds;
+    private final String[] marketNames;
+    private final String[] providerSets;
+    private final long[] firstSeen;
+    private final long[] lastSeen;
+    private final double[] peakEdge;
+    private final double[] edgeSeries;
+    private final long[] edgeTimes;
+    private final int[] seriesHead;
+    private final int[] seriesSize;
+    private final long[] seenInRound;
+    private final int[] newer;
+    private final int[] older;
+    private int stalest = -1;
+    private int freshest = -1;
+
+    private final Map<String, Integer> slotByKey;
+    private final Deque<Integer> freeSlots;
+
+    private final long[] lifetimes;
+    private int lifetimeHead;
+    private int lifetimeSize;
+
+    private long round;
+    private long closedCount;
+    private long evictedCount;
+
+    public OpportunityTracker(
+        @Value("${analytics.tracking.max-tracked:8192}") int capacity,
+        @Value("${analytics.tracking.series-length:32}") int seriesLength,
+        @Value("${analytics.tracking.lifetime-samples:65536}") int lifetimeSamples,
+        @Value("${analytics.tracking.idle-timeout-ms:600000}") long idleTimeoutMillis
+    ) {
+        this.capacity = capacity;
+        this.seriesLength = seriesLength;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.keys = new String[capacity];
+        this.groupKeys = new String[capacity];
+        this.eventIds = new String[capacity];
+        this.marketNames = new String[capacity];
+        this.providerSets = new String[capacity];
+        this.firstSeen = new long[capacity];
+        this.lastSeen = new long[capacity];
+        this.peakEdge = new double[capacity];
+        this.edgeSeries = new double[capacity * seriesLength];
+        this.edgeTimes = new long[capacity * seriesLength];
+        this.seriesHead = new int[capacity];
+        this.seriesSize = new int[capacity];
+        this.seenInRound = new long[capacity];
+        this.newer = new int[capacity];
+        this.older = new int[capacity];
+        this.slotByKey = new HashMap<>(capacity * 2);
+        this.freeSlots = new ArrayDeque<>(capacity);
+        for (int slot = capacity - 1; slot >= 0; slot--) {
+            freeSlots.push(slot);
+        }
+        this.lifetimes = new long[lifetimeSamples];
+    }
+
+    /**
+     * Records the result of one analysis. {@code markets} is the analysed input and decides which tracked
+     * opportunities were re-evaluated; those not present in {@code opportunities} are closed.
+     */
+    public void record(List<MarketSnapshot> markets, List<OpportunityResponse> opportunities) {
+        record(System.currentTimeMillis(), markets, opportunities);
+    }
+
+    synchronized void record(long now, List<MarketSnapshot> markets, List<OpportunityResponse> opportunities) {
+        round++;
+
+        for (OpportunityResponse opportunity : opportunities) {
+            observe(opportunity, now);
+        }
+
+        Set<String> coveredGroups = new HashSet<>();
+        for (MarketSnapshot market : markets) {
+            coveredGroups.add(groupKey(market.getEventId(), market.getMarketName()));
+            coveredGroups.add(market.getEventId());
+        }
+
+        List<Integer> closing = new ArrayList<>();
+        for (int slot : slotByKey.values()) {
+            boolean missing = seenInRound[slot] != round && coveredGroups.contains(groupKeys[slot]);
+            boolean idle = now - lastSeen[slot] > idleTimeoutMillis;
+            if (missing || idle) {
+                closing.add(slot);
+            }
+        }
+        for (int slot : closing) {
+            close(slot, now);
+        }
+    }
+
+    /**
+     * Forgets every tracked opportunity and recorded lifetime, e.g. after synthetic warm-up traffic.
+     */
+    public synchronized void reset() {
+        for (int slot : new ArrayList<>(slotByKey.values())) {
+            release(slot);
+        }
+        lifetimeHead = 0;
+        lifetimeSize = 0;
+        closedCount = 0;
+        evictedCount = 0;
+    }
+
+    public synchronized LifetimeReport report(int limit) {
+        long[] sample = new long[lifetimeSize];
+        for (int i = 0; i < lifetimeSize; i++) {
+            sample[i] = lifetimes[i];
+        }
+        Arrays.sort(sample);
+
+        LifetimeReport report = new LifetimeReport();
+        report.setActive(slotByKey.size());
+        report.setCapacity(capacity);
+        report.setClosed(closedCount);
+        report.setEvicted(evictedCount);
+        report.setLifetimeSamples(sample.length);
+        if (sample.length > 0) {
+            report.setLifetimeP50Millis(percentile(sample, 0.50));
+            report.setLifetimeP90Millis(percentile(sample, 0.90));
+            report.setLifetimeP99Millis(percentile(sample, 0.99));
+            report.setLifetimeMaxMillis(sample[sample.length - 1]);
+        }
+
+        List<Integer> slots = new ArrayList<>(slotByKey.values());
+        slots.sort(Comparator.comparingDouble((Integer slot) -> peakEdge[slot]).reversed());
+        List<TrackedOpportunity> open = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, slots.size()); i++) {
+            open.add(snapshot(slots.get(i)));
+        }
+        report.setOpen(open);
+        return report;
+    }
+
+    private void observe(OpportunityResponse opportunity, long now) {
+        String providers = providerSet(opportunity.getStakes());
+        String marketKey = groupKey(opportunity.getEventId(), opportunity.getMarketName());
+        String key = marketKey + "::" + providers;
+        // Cross-market opportunities span several markets, so any analysis of their event re-evaluates them.
+        String groupKey = Boolean.TRUE.equals(opportunity.getCrossMarket()) ? opportunity.getEventId() : marketKey;
+
+        Integer existing = slotByKey.get(key);
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            unlink(slot);
+        } else {
+            slot = allocate();
+            slotByKey.put(key, slot);
+            keys[slot] = key;
+            groupKeys[slot] = groupKey;
+            eventIds[slot] = opportunity.getEventId();
+            marketNames[slot] = opportunity.getMarketName();
+            providerSets[slot] = providers;
+            firstSeen[slot] = now;
+            peakEdge[slot] = Double.NEGATIVE_INFINITY;
+            seriesHead[slot] = 0;
+            seriesSize[slot] = 0;
+        }
+
+        double edge = opportunity.getGuaranteedProfitFraction();
+        linkFreshest(slot);
+        lastSeen[slot] = now;
+        seenInRound[slot] = round;
+        peakEdge[slot] = Math.max(peakEdge[slot], edge);
+
+        int offset = slot * seriesLength + seriesHead[slot];
+        edgeSeries[offset] = edge;
+        edgeTimes[offset] = now;
+        seriesHead[slot] = (seriesHead[slot] + 1) % seriesLength;
+        seriesSize[slot] = Math.min(seriesLength, seriesSize[slot] + 1);
+    }
+
+    private int allocate() {
+        if (freeSlots.isEmpty()) {
+            // Full: give up the opportunity that has gone longest without a sighting.
+            release(stalest);
+            evictedCount++;
+        }
+        return freeSlots.pop();
+    }
+
+    private void close(int slot, long now) {
+        lifetimes[lifetimeHead] = Math.max(0, now - firstSeen[slot]);
+        lifetimeHead = (lifetimeHead + 1) % lifetimes.length;
+        lifetimeSize = Math.min(lifetimes.length, lifetimeSize + 1);
+        closedCount++;
+        release(slot);
+    }
+
+    private void release(int slot) {
+        unlink(slot);
+        slotByKey.remove(keys[slot]);
+        keys[slot] = null;
+        groupKeys[slot] = null;
+        eventIds[slot] = null;
+        marketNames[slot] = null;
+        providerSets[slot] = null;
+        freeSlots.push(slot);
+    }
+
+    private void linkFreshest(int slot) {
+        older[slot] = freshest;
+        newer[slot] = -1;
+        if (freshest >= 0) {
+            newer[freshest] = slot;
+        } else {
+            stalest = slot;
+        }
+        freshest = slot;
+    }
+
+    private void unlink(int slot) {
+        if (older[slot] >= 0) {
+            newer[older[slot]] = newer[slot];
+        } else {
+            stalest = newer[slot];
+        }
+        if (newer[slot] >= 0) {
+            older[newer[slot]] = older[slot];
+        } else {
+            freshest = older[slot];
+        }
+    }
+
+    private TrackedOpportunity snapshot(int slot) {
+        int size = seriesSize[slot];
+        double[] edges = new double[size];
+        long[] times = new long[size];
+        int start = (seriesHead[slot] - size + seriesLength) % seriesLength;
+        for (int i = 0; i < size; i++) {
+            int offset = slot * seriesLength + (start + i) % seriesLength;
+            edges[i] = edgeSeries[offset];
+            times[i] = edgeTimes[offset];
+        }
+
+        TrackedOpportunity tracked = new TrackedOpportunity();
+        tracked.setEventId(eventIds[slot]);
+        tracked.setMarketName(marketNames[slot]);
+        tracked.setProviders(providerSets[slot]);
+        tracked.setFirstSeen(Instant.ofEpochMilli(firstSeen[slot]));
+        tracked.setLastSeen(Instant.ofEpochMilli(lastSeen[slot]));
+        tracked.setPeakEdge(peakEdge[slot]);
+        tracked.setEdges(edges);
+        tracked.setEdgeTimes(times);
+        return tracked;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static String providerSet(List<StakeResponse> stakes) {
+        String[] parts = new String[stakes.size()];
+        for (int i = 0; i < parts.length; i++) {
+            StakeResponse stake = stakes.get(i);
+            parts[i] = stake.getRunner() + "@" + stake.getProviderId();
+        }
+        Arrays.sort(parts);
+        return String.join(",", parts);
+    }
+
+    private static String groupKey(String eventId, String marketName) {
+        return eventId + "::" + marketName.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,172 @@
+package com.bettingarbitrage.analytics.validation;
+
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Hand-written equivalent of the {@code @NotBlank}/{@code @NotNull}/{@code @Valid} constraints on
+ * {@link MarketSnapshot} and its nested runner/provider, plus the {@code oddsDecimal > 1} check the gRPC
+ * stream applies to its quotes. Running these checks in a single loop avoids the reflective per-property
+ * traversal Bean Validation performs for every quote in large snapshots; a quote's path is only formatted once
+ * it has a violation to report.
+ */
+@Component
+public class SnapshotValidator {
+
+    private static final int MAX_REPORTED_ERRORS = 50;
+
+    private final ValidationMode mode;
+    private final Counter droppedQuotes;
+
+    public SnapshotValidator(
+        @Value("${analytics.validation.mode:strict}") String mode,
+        MeterRegistry meterRegistry
+    ) {
+        this.mode = ValidationMode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.droppedQuotes = Counter.builder("analytics.validation.dropped")
+            .description("Quotes dropped by lenient snapshot validation")
+            .register(meterRegistry);
+    }
+
+    public ValidationMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Validates every quote and returns the ones that passed. In strict mode any failure is reported as a
+     * 400 listing the offending fields; in lenient mode failing quotes are dropped and counted.
+     */
+    public Result validate(List<MarketSnapshot> markets) {
+        return validate(markets, List.of());
+    }
+
+    /**
+     * As {@link #validate(List)}, for quotes that were already rejected upstream (e.g. unconvertible provider
+     * prices during ingestion) and left out of {@code markets}: one entry in {@code rejected} per such quote.
+     */
+    public Result validate(List<MarketSnapshot> markets, List<String> rejected) {
+        return validate(markets, rejected, true);
+    }
+
+    /**
+     * As {@link #validate(List, List)}; with {@code counted} false, dropped quotes are not added to the
+     * {@code analytics.validation.dropped} counter (synthetic warm-up traffic).
+     */
+    public Result validate(List<MarketSnapshot> markets, List<String> rejected, boolean counted) {
+        List<MarketSnapshot> accepted = new ArrayList<>(markets.size());
+        List<String> errors = new ArrayList<>(rejected);
+        int invalid = rejected.size();
+
+        for (int i = 0; i < markets.size(); i++) {
+            MarketSnapshot market = markets.get(i);
+            int before = errors.size();
+            checkMarket(market, i, errors);
+            if (errors.size() == before) {
+                accepted.add(market);
+            } else {
+                invalid++;
+            }
+        }
+
+        if (invalid == 0) {
+            return new Result(markets, 0);
+        }
+        if (mode == ValidationMode.STRICT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, summarise(errors));
+        }
+        if (counted) {
+            droppedQuotes.increment(invalid);
+        }
+        return new Result(accepted, invalid);
+    }
+
+    private void checkMarket(MarketSnapshot market, int index, List<String> errors) {
+        if (market == null) {
+            errors.add(path(index) + ": must not be null");
+            return;
+        }
+        requireText(market.getEventId(), index, "eventId", errors);
+        requireText(market.getEventName(), index, "eventName", errors);
+        requireText(market.getMarketName(), index, "marketName", errors);
+
+        MarketSnapshot.Runner runner = market.getRunner();
+        if (runner == null) {
+            errors.add(path(index) + ".runner: must not be null");
+        } else {
+            requireText(runner.getId(), index, "runner.id", errors);
+            requireText(runner.getName(), index, "runner.name", errors);
+        }
+
+        MarketSnapshot.Provider provider = market.getProvider();
+        if (provider == null) {
+            errors.add(path(index) + ".provider: must not be null");
+        } else {
+            requireText(provider.getId(), index, "provider.id", errors);
+            requireText(provider.getName(), index, "provider.name", errors);
+        }
+
+        Double odds = market.getOddsDecimal();
+        if (odds == null) {
+            errors.add(path(index) + ".oddsDecimal: must not be null");
+        } else if (!(odds > 1.0)) {
+            errors.add(path(index) + ".oddsDecimal: must be greater than 1");
+        }
+        if (market.getImpliedProbability() == null) {
+            errors.add(path(index) + ".impliedProbability: must not be null");
+        }
+    }
+
+    private static void requireText(String value, int index, String field, List<String> errors) {
+        if (value == null || value.isBlank()) {
+            errors.add(path(index) + "." + field + ": must not be blank");
+        }
+    }
+
+    private static String path(int index) {
+        return "markets[" + index + "]";
+    }
+
+    private static String summarise(List<String> errors) {
+        StringBuilder message = new StringBuilder("Invalid market snapshot (")
+            .append(errors.size())
+            .append(" violations): ");
+        int limit = Math.min(errors.size(), MAX_REPORTED_ERRORS);
+        for (int i = 0; i < limit; i++) {
+            if (i > 0) {
+                message.append("; ");
+            }
+            message.append(errors.get(i));
+        }
+        if (errors.size() > limit) {
+            message.append("; ...");
+        }
+        return message.toString();
+    }
+
+    public static final class Result {
+        private final List<MarketSnapshot> accepted;
+        private final int dropped;
+
+        Result(List<MarketSnapshot> accepted, int dropped) {
+            this.accepted = accepted;
+            this.dropped = dropped;
+        }
+
+        public List<MarketSnapshot> getAccepted() {
+            return accepted;
+        }
+
+        public int getDropped() {
+            return dropped;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.bettingarbitrage.analytics.validation;
+
+public enum ValidationMode {
+    /** Reject the whole snapshot with a 400 when any quote is invalid. */
+    STRICT,
+    /** Drop invalid quotes, count them, and analyse the remainder. */
+    LENIENT
+}
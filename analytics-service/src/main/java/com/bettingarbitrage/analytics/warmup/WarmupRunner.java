@@ -0,0 +1,282 @@
+package com.bettingarbitrage.analytics.warmup;
+
+import com.bettingarbitrage.analytics.model.AnalyzeRequest;
+import com.bettingarbitrage.analytics.model.AnalyzeResponse;
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import com.bettingarbitrage.analytics.model.SimulateRequest;
+import com.bettingarbitrage.analytics.model.SimulationSummary;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Drives synthetic analyze and simulate traffic through the service's own HTTP endpoints before it reports
+ * ready, so the request path (servlet stack, Jackson, validation, analysis, Monte Carlo and fragment
+ * serialization) is JIT-compiled before the first real snapshot arrives.
+ *
+ * <p>Spring Boot publishes {@link ReadinessState#ACCEPTING_TRAFFIC} only after every {@link ApplicationRunner}
+ * has returned, so the readiness probe stays down for the whole warm-up while liveness is already up. Warm-up
+ * stops as soon as the p90 of the last {@code window} analyze calls is within {@code target-latency-ms}, and after
+ * {@code duration-ms} at the latest.
+ *
+ * <p>Every warm-up call carries {@link #HEADER} with a token drawn at startup, and {@link #isWarmup} only accepts
+ * it from a loopback address. Warm-up requests are kept out of the allocation and validation metrics, the
+ * opportunity tracker and the fragment cache, and their JFR request events are tagged, so nothing real traffic
+ * sees depends on them; a client sending the header gets no such treatment.
+ */
+@Component
+public class WarmupRunner implements ApplicationRunner {
+
+    /** Marks requests issued by the warm-up itself. */
+    public static final String HEADER = "X-Analytics-Warmup";
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+    private static final String[] PROVIDERS = {"warmup-alpha", "warmup-beta", "warmup-gamma"};
+
+    private final ApplicationContext context;
+    private final RestClient.Builder restClientBuilder;
+    private final boolean enabled;
+    private final int events;
+    private final long durationMs;
+    private final long targetLatencyMs;
+    private final int window;
+    private final int simulationTrials;
+    private final String token = newToken();
+
+    public WarmupRunner(
+        ApplicationContext context,
+        RestClient.Builder restClientBuilder,
+        @Value("${analytics.warmup.enabled:true}") boolean enabled,
+        @Value("${analytics.warmup.events:200}") int events,
+        @Value("${analytics.warmup.duration-ms:10000}") long durationMs,
+        @Value("${analytics.warmup.target-latency-ms:50}") long targetLatencyMs,
+        @Value("${analytics.warmup.window:50}") int window,
+        @Value("${analytics.warmup.simulation-trials:2000}") int simulationTrials
+    ) {
+        this.context = context;
+        this.restClientBuilder = restClientBuilder;
+        this.enabled = enabled;
+        this.events = Math.max(1, events);
+        this.durationMs = durationMs;
+        this.targetLatencyMs = targetLatencyMs;
+        this.window = Math.max(1, window);
+        this.simulationTrials = Math.max(1, simulationTrials);
+    }
+
+    /**
+     * Whether {@code request} was issued by this warm-up: it must carry this process's token in {@link #HEADER}
+     * and come from a loopback address.
+     */
+    public boolean isWarmup(HttpServletRequest request) {
+        String value = request.getHeader(HEADER);
+        if (value == null || !MessageDigest.isEqual(token.getBytes(StandardCharsets.US_ASCII), value.getBytes(StandardCharsets.US_ASCII))) {
+            return false;
+        }
+        try {
+            return InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress();
+        } catch (UnknownHostException ex) {
+            return false;
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || durationMs <= 0) {
+            return;
+        }
+        if (!(context instanceof WebServerApplicationContext webContext) || webContext.getWebServer() == null) {
+            return;
+        }
+        RestClient client = restClientBuilder
+            .baseUrl("http://localhost:" + webContext.getWebServer().getPort())
+            .defaultHeader(HEADER, token)
+            .build();
+        warmUp(context, random -> iterate(client, random));
+    }
+
+    /**
+     * Holds readiness down and runs {@code iteration} until the latency target or the deadline is reached, or an
+     * iteration fails.
+     */
+    Outcome warmUp(ApplicationEventPublisher publisher, Iteration iteration) {
+        AvailabilityChangeEvent.publish(publisher, this, ReadinessState.REFUSING_TRAFFIC);
+
+        Random random = new Random(42);
+        long[] latencies = new long[window];
+        int iterations = 0;
+        boolean targetMet = false;
+        long started = System.nanoTime();
+        long deadline = started + durationMs * 1_000_000L;
+        try {
+            while (System.nanoTime() - deadline < 0) {
+                latencies[iterations % window] = iteration.analyzeNanos(random);
+                iterations++;
+                if (targetLatencyMs > 0 && iterations >= window && p90Millis(latencies, window) <= targetLatencyMs) {
+                    targetMet = true;
+                    break;
+                }
+            }
+        } catch (RestClientException ex) {
+            log.warn("Warm-up aborted after {} iterations", iterations, ex);
+        }
+
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000L;
+        long p90 = p90Millis(latencies, Math.min(iterations, window));
+        if (targetMet) {
+            log.info("Warm-up reached {} ms p90 analyze latency after {} iterations in {} ms", p90, iterations, elapsedMs);
+        } else {
+            log.info("Warm-up ran {} iterations in {} ms (last p90 analyze latency {} ms)", iterations, elapsedMs, p90);
+        }
+        return new Outcome(iterations, targetMet, p90);
+    }
+
+    /**
+     * One analyze call on a fresh synthetic snapshot and, when it finds anything, a simulation of one of the
+     * opportunities; returns the analyze latency.
+     */
+    private long iterate(RestClient client, Random random) {
+        long requestStart = System.nanoTime();
+        AnalyzeResponse response = client.post()
+            .uri("/api/analyze")
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(syntheticSnapshot(random))
+            .retrieve()
+            .body(AnalyzeResponse.class);
+        long analyzeNanos = System.nanoTime() - requestStart;
+
+        if (response != null && !response.getOpportunities().isEmpty()) {
+            SimulateRequest simulation = new SimulateRequest();
+            simulation.setOpportunity(response.getOpportunities().get(random.nextInt(response.getOpportunities().size())));
+            simulation.setTrials(simulationTrials);
+            client.post()
+                .uri("/api/simulate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(simulation)
+                .retrieve()
+                .body(SimulationSummary.class);
+        }
+        return analyzeNanos;
+    }
+
+    String token() {
+        return token;
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    private static long p90Millis(long[] latencies, int count) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(count * 0.9) - 1] / 1_000_000L;
+    }
+
+    /**
+     * A match-result and a total-goals market per event, priced by three providers with margins spread around
+     * zero so that some groups are arbitrages and go through staking, risk metrics and Monte Carlo.
+     */
+    private AnalyzeRequest syntheticSnapshot(Random random) {
+        List<MarketSnapshot> markets = new ArrayList<>(events * PROVIDERS.length * 5);
+        for (int event = 0; event < events; event++) {
+            String eventId = "warmup-" + event;
+            String home = "Home " + event;
+            String away = "Away " + event;
+            String eventName = home + " vs " + away;
+
+            double homeProbability = 0.25 + random.nextDouble() * 0.4;
+            double drawProbability = 0.2 + random.nextDouble() * 0.1;
+            double overProbability = 0.35 + random.nextDouble() * 0.3;
+            for (String provider : PROVIDERS) {
+                double margin = 1.0 + (random.nextDouble() * 0.08 - 0.03);
+                markets.add(quote(eventId, eventName, "Match Result", "moneyline", null, "home", home, provider, homeProbability * margin));
+                markets.add(quote(eventId, eventName, "Match Result", "moneyline", null, "draw", "Draw", provider, drawProbability * margin));
+                markets.add(quote(eventId, eventName, "Match Result", "moneyline", null, "away", away, provider,
+                    (1.0 - homeProbability - drawProbability) * margin));
+                markets.add(quote(eventId, eventName, "Total Goals", "total", 2.5, "over", "Over 2.5", provider, overProbability * margin));
+                markets.add(quote(eventId, eventName, "Total Goals", "total", 2.5, "under", "Under 2.5", provider,
+                    (1.0 - overProbability) * margin));
+            }
+        }
+
+        AnalyzeRequest request = new AnalyzeRequest();
+        request.setSnapshotTime(Instant.now());
+        request.setBankroll(1000);
+        request.setMinimumEdge(0.0);
+        request.setMarkets(markets);
+        return request;
+    }
+
+    private static MarketSnapshot quote(
+        String eventId,
+        String eventName,
+        String marketName,
+        String marketType,
+        Double line,
+        String runnerId,
+        String runnerName,
+        String providerId,
+        double impliedProbability
+    ) {
+        double odds = Math.max(1.01, Math.round(100.0 / impliedProbability) / 100.0);
+
+        MarketSnapshot.Runner runner = new MarketSnapshot.Runner();
+        runner.setId(runnerId);
+        runner.setName(runnerName);
+        MarketSnapshot.Provider provider = new MarketSnapshot.Provider();
+        provider.setId(providerId);
+        provider.setName(providerId);
+
+        MarketSnapshot snapshot = new MarketSnapshot();
+        snapshot.setEventId(eventId);
+        snapshot.setEventName(eventName);
+        snapshot.setMarketName(marketName);
+        snapshot.setSport("soccer");
+        snapshot.setLeague("Warm-up");
+        snapshot.setMarketType(marketType);
+        snapshot.setLine(line);
+        snapshot.setRunner(runner);
+        snapshot.setProvider(provider);
+        snapshot.setOddsDecimal(odds);
+        snapshot.setImpliedProbability(1.0 / odds);
+        return snapshot;
+    }
+
+    /** One round of warm-up traffic, returning the latency of its analyze call in nanoseconds. */
+    interface Iteration {
+        long analyzeNanos(Random random);
+    }
+
+    /** How a warm-up ended: iterations run, whether the latency target was met, and the last p90. */
+    record Outcome(int iterations, boolean targetMet, long p90Millis) {
+    }
+}
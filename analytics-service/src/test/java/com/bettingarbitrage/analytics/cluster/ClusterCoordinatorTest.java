@@ -0,0 +1,219 @@
+package com.bettingarbitrage.analytics.cluster;
+
+import com.bettingarbitrage.analytics.model.AnalyzeRequest;
+import com.bettingarbitrage.analytics.model.AnalyzeResponse;
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.ParameterSet;
+import com.bettingarbitrage.analytics.model.SweepResult;
+import com.bettingarbitrage.analytics.service.AnalysisBudget;
+import com.bettingarbitrage.analytics.service.AnalysisListener;
+import com.bettingarbitrage.analytics.service.ArbitrageService;
+import com.bettingarbitrage.analytics.service.CrossMarketDetector;
+import com.bettingarbitrage.analytics.tracking.OpportunityTracker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterCoordinatorTest {
+
+    private static final String SELF = "http://self.invalid";
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final List<AnalyzeRequest> forwarded = new CopyOnWriteArrayList<>();
+    private final List<String> forwardedHeaders = new CopyOnWriteArrayList<>();
+    private HttpServer peer;
+    private String peerUrl;
+    private volatile int analyzeStatus = 200;
+    private volatile AnalyzeResponse peerResponse = new AnalyzeResponse(new ArrayList<>());
+
+    private ClusterMembership membership;
+    private ClusterCoordinator coordinator;
+
+    @BeforeEach
+    void startPeer() throws IOException {
+        peer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        peer.createContext("/api/analyze", this::handleAnalyze);
+        peer.createContext("/actuator/health/readiness", exchange -> respond(exchange, 200, "{\"status\":\"UP\"}"));
+        peer.start();
+        peerUrl = "http://127.0.0.1:" + peer.getAddress().getPort();
+
+        membership = new ClusterMembership(true, SELF, peerUrl, 128, 2_000, RestClient.builder());
+        ArbitrageService arbitrageService = new ArbitrageService(
+            new OpportunityTracker(1024, 16, 4096, 600_000), new CrossMarketDetector(false, 4));
+        coordinator = new ClusterCoordinator(arbitrageService, membership, RestClient.builder(), 2_000);
+    }
+
+    @AfterEach
+    void stopPeer() {
+        coordinator.shutdown();
+        peer.stop(0);
+    }
+
+    @Test
+    void peerPartitionsAreForwardedAndMergedByEdgeAndSweepIndex() {
+        String localEvent = eventOwnedBy(SELF);
+        String peerEvent = eventOwnedBy(peerUrl);
+        OpportunityResponse peerPrimary = opportunity(peerEvent, 0.2);
+        SweepResult peerFirstSweep = new SweepResult("small", 500, 0, new ArrayList<>(List.of(opportunity(peerEvent, 0.01))));
+        peerFirstSweep.setPartial(true);
+        peerFirstSweep.setSkippedGroups(2);
+        AnalyzeResponse response = new AnalyzeResponse(new ArrayList<>(List.of(peerPrimary)));
+        response.setSweeps(List.of(peerFirstSweep, new SweepResult("strict", 2000, 0.5, new ArrayList<>())));
+        peerResponse = response;
+
+        AnalyzeRequest request = request(
+            quote(localEvent, "home", "p1", 2.1), quote(localEvent, "away", "p2", 2.1),
+            quote(peerEvent, "home", "p1", 2.1), quote(peerEvent, "away", "p2", 2.1));
+        request.setParameterSets(List.of(parameterSet("small", 500, 0), parameterSet("strict", 2000, 0.5)));
+        List<String> streamed = new ArrayList<>();
+        AnalyzeResponse merged = coordinator.analyze(request, AnalysisBudget.ofMillis(null), new AnalysisListener() {
+            @Override
+            public void onOpportunity(OpportunityResponse opportunity) {
+                streamed.add(opportunity.getEventId());
+            }
+        });
+
+        assertEquals(1, forwarded.size());
+        assertEquals(List.of(peerEvent, peerEvent), forwarded.get(0).getMarkets().stream().map(MarketSnapshot::getEventId).toList());
+        assertEquals(2, forwarded.get(0).getParameterSets().size());
+        assertEquals(List.of("true"), forwardedHeaders);
+
+        assertEquals(List.of(peerEvent, localEvent), eventIds(merged.getOpportunities()));
+        assertEquals(List.of(localEvent, peerEvent), streamed, "local opportunities stream first, then the peer's");
+        assertNull(merged.getPartial());
+
+        List<SweepResult> sweeps = merged.getSweeps();
+        assertEquals(List.of("small", "strict"), sweeps.stream().map(SweepResult::getId).toList());
+        assertEquals(List.of(localEvent, peerEvent), eventIds(sweeps.get(0).getOpportunities()));
+        assertEquals(500, sweeps.get(0).getBankroll(), 1e-9);
+        assertEquals(Boolean.TRUE, sweeps.get(0).getPartial());
+        assertEquals(2, sweeps.get(0).getSkippedGroups());
+        assertTrue(sweeps.get(1).getOpportunities().isEmpty());
+        assertNull(sweeps.get(1).getPartial());
+    }
+
+    @Test
+    void failedPeerPartitionIsAnalysedLocallyAndThePeerLeavesTheRing() {
+        analyzeStatus = 503;
+        String localEvent = eventOwnedBy(SELF);
+        String peerEvent = eventOwnedBy(peerUrl);
+
+        AnalyzeResponse merged = coordinator.analyze(request(
+            quote(localEvent, "home", "p1", 2.1), quote(localEvent, "away", "p2", 2.1),
+            quote(peerEvent, "home", "p1", 2.2), quote(peerEvent, "away", "p2", 2.2)), AnalysisBudget.ofMillis(null));
+
+        assertEquals(1, forwarded.size());
+        assertEquals(List.of(peerEvent, localEvent), eventIds(merged.getOpportunities()));
+        assertEquals(List.of(SELF), membership.getLiveNodes());
+        assertEquals(List.of(SELF), membership.getRing().getNodes());
+
+        // While the peer is down every event stays here, without another forwarding attempt.
+        coordinator.analyze(request(quote(peerEvent, "home", "p1", 2.2), quote(peerEvent, "away", "p2", 2.2)),
+            AnalysisBudget.ofMillis(null));
+        assertEquals(1, forwarded.size());
+
+        // Passing a readiness probe brings it back.
+        membership.probePeers();
+        assertTrue(membership.getLiveNodes().contains(peerUrl));
+        assertEquals(List.of(peerUrl, SELF), membership.getRing().getNodes());
+        assertEquals(peerUrl, membership.getRing().ownerOf(peerEvent));
+    }
+
+    private void handleAnalyze(HttpExchange exchange) throws IOException {
+        forwarded.add(objectMapper.readValue(exchange.getRequestBody(), AnalyzeRequest.class));
+        forwardedHeaders.add(exchange.getRequestHeaders().getFirst(ClusterCoordinator.FORWARDED_HEADER));
+        if (analyzeStatus != 200) {
+            respond(exchange, analyzeStatus, "{}");
+        } else {
+            respond(exchange, 200, objectMapper.writeValueAsString(peerResponse));
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String eventOwnedBy(String node) {
+        ConsistentHashRing ring = membership.getRing();
+        for (int i = 0; ; i++) {
+            String eventId = "event-" + i;
+            if (ring.ownerOf(eventId).equals(node)) {
+                return eventId;
+            }
+        }
+    }
+
+    private static List<String> eventIds(List<OpportunityResponse> opportunities) {
+        return opportunities.stream().map(OpportunityResponse::getEventId).toList();
+    }
+
+    private static OpportunityResponse opportunity(String eventId, double edge) {
+        OpportunityResponse opportunity = new OpportunityResponse();
+        opportunity.setEventId(eventId);
+        opportunity.setMarketName("Match Winner");
+        opportunity.setGuaranteedProfitFraction(edge);
+        opportunity.setStakes(new ArrayList<>());
+        return opportunity;
+    }
+
+    private static ParameterSet parameterSet(String id, double bankroll, double minimumEdge) {
+        ParameterSet parameters = new ParameterSet();
+        parameters.setId(id);
+        parameters.setBankroll(bankroll);
+        parameters.setMinimumEdge(minimumEdge);
+        return parameters;
+    }
+
+    private static AnalyzeRequest request(MarketSnapshot... quotes) {
+        AnalyzeRequest request = new AnalyzeRequest();
+        request.setBankroll(1000);
+        request.setMinimumEdge(0);
+        request.setMarkets(new ArrayList<>(List.of(quotes)));
+        return request;
+    }
+
+    private static MarketSnapshot quote(String eventId, String runnerId, String providerId, double odds) {
+        MarketSnapshot.Runner runner = new MarketSnapshot.Runner();
+        runner.setId(runnerId);
+        runner.setName(runnerId);
+        MarketSnapshot.Provider provider = new MarketSnapshot.Provider();
+        provider.setId(providerId);
+        provider.setName(providerId);
+
+        MarketSnapshot quote = new MarketSnapshot();
+        quote.setEventId(eventId);
+        quote.setEventName(eventId);
+        quote.setMarketName("Match Winner");
+        quote.setMarketType("moneyline");
+        quote.setSport("soccer");
+        quote.setRunner(runner);
+        quote.setProvider(provider);
+        quote.setOddsDecimal(odds);
+        quote.setImpliedProbability(1.0 / odds);
+        return quote;
+    }
+}
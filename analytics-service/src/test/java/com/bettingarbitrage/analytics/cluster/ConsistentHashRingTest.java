@@ -0,0 +1,101 @@
+package com.bettingarbitrage.analytics.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final int EVENTS = 30_000;
+    private static final List<String> NODES = List.of("http://a:8081", "http://b:8081", "http://c:8081");
+
+    @Test
+    void eventsSpreadRoughlyEvenlyOverNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < EVENTS; i++) {
+            counts.merge(ring.ownerOf("event-" + i), 1, Integer::sum);
+        }
+
+        assertEquals(NODES.size(), counts.size());
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            double share = count.getValue() / (double) EVENTS;
+            assertTrue(share > 0.25 && share < 0.42, () -> count.getKey() + " owns " + share);
+        }
+    }
+
+    @Test
+    void joiningNodeOnlyTakesEventsOverFromOthers() {
+        ConsistentHashRing before = new ConsistentHashRing(NODES, 128);
+        String joining = "http://d:8081";
+        ConsistentHashRing after = new ConsistentHashRing(List.of(NODES.get(0), NODES.get(1), NODES.get(2), joining), 128);
+
+        int moved = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            String eventId = "event-" + i;
+            String owner = after.ownerOf(eventId);
+            if (!owner.equals(before.ownerOf(eventId))) {
+                assertEquals(joining, owner, "events may only move to the joining node");
+                moved++;
+            }
+        }
+        double share = moved / (double) EVENTS;
+        assertTrue(share > 0.15 && share < 0.35, () -> "moved " + share);
+    }
+
+    @Test
+    void leavingNodeOnlyHandsOnItsOwnEvents() {
+        ConsistentHashRing before = new ConsistentHashRing(NODES, 128);
+        String leaving = NODES.get(1);
+        ConsistentHashRing after = new ConsistentHashRing(List.of(NODES.get(0), NODES.get(2)), 128);
+
+        for (int i = 0; i < EVENTS; i++) {
+            String eventId = "event-" + i;
+            String owner = before.ownerOf(eventId);
+            if (!owner.equals(leaving)) {
+                assertEquals(owner, after.ownerOf(eventId), eventId);
+            }
+        }
+    }
+
+    @Test
+    void keysPastTheLastPointWrapToTheFirst() {
+        // One point per node makes the ring order easy to reason about.
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 1);
+        String first = NODES.get(0);
+        long firstPoint = Long.MAX_VALUE;
+        long lastPoint = Long.MIN_VALUE;
+        for (String node : NODES) {
+            long point = ConsistentHashRing.hash(node + "#0");
+            if (point < firstPoint) {
+                firstPoint = point;
+                first = node;
+            }
+            lastPoint = Math.max(lastPoint, point);
+        }
+
+        int wrapped = 0;
+        for (int i = 0; i < EVENTS && wrapped < 10; i++) {
+            String eventId = "event-" + i;
+            long hash = ConsistentHashRing.hash(eventId);
+            if (hash > lastPoint) {
+                assertEquals(first, ring.ownerOf(eventId), eventId);
+                wrapped++;
+            }
+        }
+        assertTrue(wrapped > 0, "no key hashed past the last point");
+    }
+
+    @Test
+    void emptyRingHasNoOwner() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(), 128);
+        assertTrue(ring.isEmpty());
+        assertThrows(IllegalStateException.class, () -> ring.ownerOf("event-1"));
+    }
+}
@@ -0,0 +1,37 @@
+package com.bettingarbitrage.analytics.config;
+
+import com.bettingarbitrage.analytics.model.AnalyzeRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NativeHintsTest {
+
+    @Test
+    void everyModelClassIsRegisteredForBinding() throws IOException {
+        String modelPackage = AnalyzeRequest.class.getPackageName();
+        Set<String> modelClasses = new TreeSet<>();
+        Resource[] resources = new PathMatchingResourcePatternResolver()
+            .getResources("classpath*:" + modelPackage.replace('.', '/') + "/*.class");
+        for (Resource resource : resources) {
+            String file = resource.getFilename();
+            modelClasses.add(modelPackage + "." + file.substring(0, file.length() - ".class".length()));
+        }
+
+        Set<String> registered = new TreeSet<>();
+        for (Class<?> type : NativeHints.class.getAnnotation(RegisterReflectionForBinding.class).value()) {
+            if (type.getPackageName().equals(modelPackage)) {
+                registered.add(type.getName());
+            }
+        }
+
+        assertEquals(modelClasses, registered);
+    }
+}
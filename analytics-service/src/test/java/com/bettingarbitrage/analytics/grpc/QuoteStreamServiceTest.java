@@ -0,0 +1,183 @@
+package com.bettingarbitrage.analytics.grpc;
+
+import com.bettingarbitrage.analytics.grpc.v1.MarketQuote;
+import com.bettingarbitrage.analytics.grpc.v1.OpportunityUpdate;
+import com.bettingarbitrage.analytics.grpc.v1.QuoteStreamGrpc;
+import com.bettingarbitrage.analytics.grpc.v1.QuoteUpdate;
+import com.bettingarbitrage.analytics.service.ArbitrageService;
+import com.bettingarbitrage.analytics.service.CrossMarketDetector;
+import com.bettingarbitrage.analytics.tracking.OpportunityTracker;
+import com.bettingarbitrage.analytics.validation.SnapshotValidator;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuoteStreamServiceTest {
+
+    private static final long TIMEOUT_MS = 2_000;
+    private static final long QUIET_MS = 200;
+
+    private Server server;
+    private ManagedChannel channel;
+    private final Responses responses = new Responses();
+    private StreamObserver<QuoteUpdate> requests;
+
+    @BeforeEach
+    void start() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        ArbitrageService arbitrageService = new ArbitrageService(
+            new OpportunityTracker(1024, 16, 4096, 600_000), new CrossMarketDetector(false, 4));
+        server = InProcessServerBuilder.forName(name)
+            .directExecutor()
+            .addService(new QuoteStreamService(arbitrageService, new SnapshotValidator("strict", new SimpleMeterRegistry())))
+            .build()
+            .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        requests = QuoteStreamGrpc.newStub(channel).stream(responses);
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        channel.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void pushedQuotesOpenAnOpportunity() throws Exception {
+        requests.onNext(QuoteUpdate.newBuilder()
+            .setBankroll(500)
+            .addQuotes(quote("home", "p1", 2.1))
+            .addQuotes(quote("away", "p2", 2.1))
+            .build());
+
+        OpportunityUpdate update = responses.next();
+        assertFalse(update.getClosed());
+        assertEquals("e1", update.getEventId());
+        assertEquals("Match Winner", update.getMarketName());
+        assertEquals(500, update.getOpportunity().getBankroll(), 1e-9);
+        assertEquals(2, update.getOpportunity().getStakesCount());
+    }
+
+    @Test
+    void onlyChangedOpportunitiesAreResent() throws Exception {
+        requests.onNext(update(quote("home", "p1", 2.1), quote("away", "p2", 2.1)));
+        responses.next();
+
+        requests.onNext(update(quote("home", "p1", 2.1)));
+        responses.assertQuiet();
+
+        requests.onNext(update(quote("home", "p1", 2.2)));
+        assertEquals(2.2, responses.next().getOpportunity().getStakes(0).getOdds(), 1e-9);
+    }
+
+    @Test
+    void minimumEdgeCanBeRaisedAndResetToZero() throws Exception {
+        requests.onNext(update(quote("home", "p1", 2.1), quote("away", "p2", 2.1)));
+        responses.next();
+
+        requests.onNext(QuoteUpdate.newBuilder().setMinimumEdge(0.2).addQuotes(quote("home", "p1", 2.1)).build());
+        assertTrue(responses.next().getClosed());
+
+        requests.onNext(QuoteUpdate.newBuilder().setMinimumEdge(0).addQuotes(quote("home", "p1", 2.1)).build());
+        assertFalse(responses.next().getClosed());
+    }
+
+    @Test
+    void suspendedQuoteClosesTheOpportunity() throws Exception {
+        requests.onNext(update(quote("home", "p1", 2.1), quote("away", "p2", 2.1)));
+        responses.next();
+
+        requests.onNext(update(quote("away", "p2", 2.1).toBuilder().setSuspended(true).build()));
+        OpportunityUpdate update = responses.next();
+        assertTrue(update.getClosed());
+        assertEquals("Match Winner", update.getMarketName());
+        assertFalse(update.hasOpportunity());
+    }
+
+    @Test
+    void invalidQuoteFailsTheStreamInStrictMode() throws Exception {
+        requests.onNext(update(quote("home", "p1", 2.1).toBuilder().setEventName(" ").build()));
+
+        Throwable error = responses.error.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(Status.Code.INVALID_ARGUMENT, Status.fromThrowable(error).getCode());
+    }
+
+    @Test
+    void clientCloseCompletesTheStream() throws Exception {
+        requests.onNext(update(quote("home", "p1", 2.1), quote("away", "p2", 2.1)));
+        responses.next();
+
+        requests.onCompleted();
+        responses.completed.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private static QuoteUpdate update(MarketQuote... quotes) {
+        QuoteUpdate.Builder builder = QuoteUpdate.newBuilder();
+        for (MarketQuote quote : quotes) {
+            builder.addQuotes(quote);
+        }
+        return builder.build();
+    }
+
+    private static MarketQuote quote(String runnerId, String providerId, double odds) {
+        return MarketQuote.newBuilder()
+            .setEventId("e1")
+            .setEventName("Home vs Away")
+            .setMarketName("Match Winner")
+            .setRunnerId(runnerId)
+            .setRunnerName(runnerId)
+            .setProviderId(providerId)
+            .setProviderName(providerId)
+            .setOddsDecimal(odds)
+            .build();
+    }
+
+    private static final class Responses implements StreamObserver<OpportunityUpdate> {
+
+        private final BlockingQueue<OpportunityUpdate> updates = new LinkedBlockingQueue<>();
+        private final CompletableFuture<Throwable> error = new CompletableFuture<>();
+        private final CompletableFuture<Void> completed = new CompletableFuture<>();
+
+        @Override
+        public void onNext(OpportunityUpdate update) {
+            updates.add(update);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error.complete(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            completed.complete(null);
+        }
+
+        OpportunityUpdate next() throws InterruptedException {
+            OpportunityUpdate update = updates.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            assertTrue(update != null, "expected an opportunity update");
+            return update;
+        }
+
+        void assertQuiet() throws InterruptedException {
+            assertNull(updates.poll(QUIET_MS, TimeUnit.MILLISECONDS));
+        }
+    }
+}
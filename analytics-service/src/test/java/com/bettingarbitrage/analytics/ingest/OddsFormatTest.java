@@ -0,0 +1,61 @@
+package com.bettingarbitrage.analytics.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OddsFormatTest {
+
+    private static final double TOLERANCE = 1e-12;
+
+    @Test
+    void decimalPricesPassThroughAboveEvens() {
+        assertEquals(2.5, OddsFormat.DECIMAL.toDecimal(2.5), TOLERANCE);
+        assertEquals(1.01, OddsFormat.DECIMAL.toDecimal("1.01"), TOLERANCE);
+        assertRejected("Invalid decimal odds: 1", () -> OddsFormat.DECIMAL.toDecimal(1.0));
+        assertRejected("Invalid decimal odds: 0.5", () -> OddsFormat.DECIMAL.toDecimal(0.5));
+    }
+
+    @Test
+    void americanPricesConvertFromPlusAndMinusLines() {
+        assertEquals(2.5, OddsFormat.AMERICAN.toDecimal(150), TOLERANCE);
+        assertEquals(1.5, OddsFormat.AMERICAN.toDecimal(-200), TOLERANCE);
+        assertEquals(2.0, OddsFormat.AMERICAN.toDecimal("+100"), TOLERANCE);
+        assertRejected("Invalid American odds: 99", () -> OddsFormat.AMERICAN.toDecimal(99));
+        assertRejected("Invalid American odds: -50", () -> OddsFormat.AMERICAN.toDecimal("-50"));
+    }
+
+    @Test
+    void fractionalPricesAcceptNumbersAndFractions() {
+        assertEquals(2.5, OddsFormat.FRACTIONAL.toDecimal(1.5), TOLERANCE);
+        assertEquals(3.5, OddsFormat.FRACTIONAL.toDecimal("5/2"), TOLERANCE);
+        assertEquals(1.8, OddsFormat.FRACTIONAL.toDecimal(" 4/5 "), TOLERANCE);
+        assertRejected("Invalid fractional odds: 0", () -> OddsFormat.FRACTIONAL.toDecimal(0));
+        assertRejected("Invalid fractional odds: 1/0", () -> OddsFormat.FRACTIONAL.toDecimal("1/0"));
+        assertRejected("Invalid fractional odds: 0/1", () -> OddsFormat.FRACTIONAL.toDecimal("0/1"));
+        assertRejected("Invalid fractional odds: a/b", () -> OddsFormat.FRACTIONAL.toDecimal("a/b"));
+        // A string price must be a fraction; only numeric JSON prices are taken as the fractional value itself.
+        assertRejected("Invalid fractional odds: 2", () -> OddsFormat.FRACTIONAL.toDecimal("2"));
+    }
+
+    @Test
+    void stringPricesFollowJavaScriptNumberParsing() {
+        assertEquals(2.0, OddsFormat.DECIMAL.toDecimal(" 2 "), TOLERANCE);
+        assertRejected("Invalid decimal odds: 2d", () -> OddsFormat.DECIMAL.toDecimal("2d"));
+        assertRejected("Invalid decimal odds: ", () -> OddsFormat.DECIMAL.toDecimal(""));
+        assertRejected("Invalid decimal odds: Infinity", () -> OddsFormat.DECIMAL.toDecimal("Infinity"));
+        assertRejected("Invalid decimal odds: NaN", () -> OddsFormat.DECIMAL.toDecimal(Double.NaN));
+    }
+
+    @Test
+    void formatNamesAreCaseInsensitive() {
+        assertEquals(OddsFormat.AMERICAN, OddsFormat.fromJson(" american "));
+        assertEquals(OddsFormat.FRACTIONAL, OddsFormat.fromJson("Fractional"));
+        assertRejected("Unsupported odds format: moneyline", () -> OddsFormat.fromJson("moneyline"));
+    }
+
+    private static void assertRejected(String message, Runnable conversion) {
+        assertEquals(message, assertThrows(IllegalArgumentException.class, conversion::run).getMessage());
+    }
+}
@@ -0,0 +1,172 @@
+package com.bettingarbitrage.analytics.ingest;
+
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProviderPayloadReaderTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    private final ProviderPayloadReader reader = new ProviderPayloadReader(
+        JsonMapper.builder().findAndAddModules().build(),
+        Validation.buildDefaultValidatorFactory().getValidator()
+    );
+
+    @Test
+    void eventsResolveByIdThenNameOrTeamsThenProviderSlug() throws IOException {
+        ProviderPayloadReader.Result result = read("""
+            {
+              "canonicalEvents": [
+                {"id": "c1", "eventName": "Alpha vs Beta", "sport": "soccer", "league": "Premier",
+                 "startTime": "2024-05-01T18:00:00Z"},
+                {"id": "c2", "eventName": "Gamma vs Delta", "sport": "soccer", "homeTeam": "Gamma", "awayTeam": "Delta",
+                 "startTime": "not a date"}
+              ],
+              "providers": [{
+                "provider": {"id": "p1", "name": "Provider One", "slug": "one"},
+                "oddsFormat": "decimal",
+                "payload": {"events": [
+                  %s,
+                  %s,
+                  %s,
+                  %s
+                ]}
+              }]
+            }
+            """.formatted(
+                event("\"id\": \"c1\", \"name\": \"Whatever\"", "r1", "2.0"),
+                event("\"id\": \"x\", \"name\": \"ALPHA VS BETA\"", "r2", "2.0"),
+                event("\"id\": \"y\", \"name\": \"Other\", \"homeTeam\": \"gamma\", \"awayTeam\": \"DELTA\"", "r3", "2.0"),
+                event("\"id\": \"z\", \"name\": \"Epsilon vs Zeta\"", "r4", "2.0")));
+
+        List<MarketSnapshot> markets = result.getRequest().getMarkets();
+        assertEquals(4, markets.size());
+        assertEquals("c1", markets.get(0).getEventId());
+        assertEquals("Alpha vs Beta", markets.get(0).getEventName());
+        assertEquals("Premier", markets.get(0).getLeague());
+        assertEquals(Instant.parse("2024-05-01T18:00:00Z"), markets.get(0).getStartTime());
+        assertEquals("c1", markets.get(1).getEventId());
+        assertEquals("c2", markets.get(2).getEventId());
+        assertNull(markets.get(2).getStartTime(), "unparseable start times are dropped");
+        assertEquals("one-z", markets.get(3).getEventId());
+        assertEquals("Epsilon vs Zeta", markets.get(3).getEventName());
+        assertEquals("unknown", markets.get(3).getSport());
+        assertTrue(result.getRejected().isEmpty());
+    }
+
+    @Test
+    void duplicateQuotesKeepTheLatestGeneratedAt() throws IOException {
+        // The newer payload comes first and states generatedAt after its events.
+        ProviderPayloadReader.Result result = read("""
+            {"providers": [
+              {"provider": {"id": "p1", "name": "P1"}, "oddsFormat": "decimal",
+               "payload": {"events": [%s], "generatedAt": "2024-05-01T12:00:05Z"}},
+              {"provider": {"id": "p1", "name": "P1"}, "oddsFormat": "decimal",
+               "payload": {"generatedAt": "2024-05-01T12:00:00Z", "events": [%s]}}
+            ]}
+            """.formatted(event("\"id\": \"e1\"", "home", "2.2"), event("\"id\": \"e1\"", "home", "2.6")));
+
+        List<MarketSnapshot> markets = result.getRequest().getMarkets();
+        assertEquals(1, markets.size());
+        assertEquals(2.2, markets.get(0).getOddsDecimal(), TOLERANCE);
+    }
+
+    @Test
+    void payloadBeforeProviderAndFormatIsReplayedWithThem() throws IOException {
+        ProviderPayloadReader.Result result = read("""
+            {"providers": [{
+              "payload": {"events": [%s]},
+              "provider": {"id": "p1", "name": "P1"},
+              "oddsFormat": "american"
+            }]}
+            """.formatted(event("\"id\": \"e1\"", "home", "-250")));
+
+        MarketSnapshot quote = result.getRequest().getMarkets().get(0);
+        assertEquals(1.4, quote.getOddsDecimal(), TOLERANCE);
+        assertEquals(0.714286, quote.getImpliedProbability(), TOLERANCE);
+        assertEquals("Match Result", quote.getMarketName());
+        assertEquals("moneyline", quote.getMarketType());
+        assertEquals("p1", quote.getProvider().getId());
+    }
+
+    @Test
+    void unconvertiblePricesAndEventsWithoutIdAreRejectedPerQuote() throws IOException {
+        ProviderPayloadReader.Result result = read("""
+            {"providers": [{
+              "provider": {"id": "p1", "name": "P1"},
+              "oddsFormat": "fractional",
+              "payload": {"events": [
+                {"id": "e1", "markets": [{"name": "Match Result", "runners": [
+                  {"id": "home", "name": "Home", "price": "5/2"},
+                  {"id": "away", "name": "Away", "price": "1/0"},
+                  {"id": "draw", "name": "Draw"},
+                  {"id": "void", "name": "Void", "price": true}
+                ]}]},
+                {"name": "No id", "markets": [{"name": "Match Result", "runners": [
+                  {"id": "home", "name": "Home", "price": 1.5},
+                  {"id": "away", "name": "Away", "price": 2}
+                ]}]}
+              ]}
+            }]}
+            """);
+
+        List<MarketSnapshot> markets = result.getRequest().getMarkets();
+        assertEquals(1, markets.size());
+        assertEquals(3.5, markets.get(0).getOddsDecimal(), TOLERANCE);
+        assertEquals("other", markets.get(0).getMarketType());
+        assertEquals(List.of(
+            "providers[0].payload.events[0].markets[0].runners[1].price: Invalid fractional odds: 1/0",
+            "providers[0].payload.events[0].markets[0].runners[2].price: must not be null",
+            "providers[0].payload.events[0].markets[0].runners[3].price: must be a number or string",
+            "providers[0].payload.events[1].id: must not be blank",
+            "providers[0].payload.events[1].id: must not be blank"
+        ), result.getRejected());
+    }
+
+    @Test
+    void malformedProviderEntriesFailTheRequest() {
+        assertBadRequest("providers[0].provider: must not be null", """
+            {"providers": [{"oddsFormat": "decimal", "payload": {"events": [%s]}}]}
+            """.formatted(event("\"id\": \"e1\"", "home", "2.0")));
+        assertBadRequest("providers[0].oddsFormat: Unsupported odds format: hongkong", """
+            {"providers": [{"provider": {"id": "p1", "name": "P1"}, "oddsFormat": "hongkong", "payload": {"events": []}}]}
+            """);
+        assertBadRequest("providers: must contain at least one event", """
+            {"providers": [{"provider": {"id": "p1", "name": "P1"}, "oddsFormat": "decimal", "payload": {"events": []}}]}
+            """);
+        assertBadRequest("Ingest payload must be a JSON object", "[]");
+    }
+
+    private ProviderPayloadReader.Result read(String json) throws IOException {
+        return reader.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void assertBadRequest(String reason, String json) {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> read(json));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        assertEquals(reason, ex.getReason());
+    }
+
+    /** One event with a single-runner match-result market; {@code fields} are the event's own JSON members. */
+    private static String event(String fields, String runnerId, String price) {
+        return """
+            {%s, "markets": [{"name": "Match Result", "type": "moneyline", "runners": [
+              {"id": "%s", "name": "%s", "price": %s}
+            ]}]}""".formatted(fields, runnerId, runnerId, price);
+    }
+}
@@ -0,0 +1,91 @@
+package com.bettingarbitrage.analytics.profiling;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightRecorderEndpointTest {
+
+    private static final long MAX_AGE_MS = 60_000;
+    private static final long MAX_SIZE_MB = 16;
+
+    private FlightRecorderEndpoint endpoint;
+
+    @AfterEach
+    void stop() {
+        if (endpoint != null) {
+            endpoint.stop();
+        }
+    }
+
+    @Test
+    void continuousRecordingRunsFromStartupWithinBounds() {
+        endpoint = endpoint(true, false);
+        endpoint.start();
+
+        Map<String, Object> status = endpoint.status();
+        assertEquals("RUNNING", status.get("state"));
+        assertEquals(Duration.ofMillis(MAX_AGE_MS), status.get("maxAge"));
+        assertEquals(MAX_SIZE_MB * 1024 * 1024, status.get("maxSize"));
+    }
+
+    @Test
+    void runningRecordingCanBeDownloaded() throws IOException {
+        endpoint = endpoint(true, false);
+        endpoint.start();
+        AnalysisRequestEvent.begin(10, 1_024, 0, false).finish(1);
+
+        Resource resource = endpoint.download("download");
+        assertEquals("analytics.jfr", resource.getFilename());
+        byte[] data;
+        try (InputStream in = resource.getInputStream()) {
+            data = in.readAllBytes();
+        }
+        assertEquals(resource.contentLength(), data.length);
+        assertArrayEquals("FLR\0".getBytes(StandardCharsets.US_ASCII), Arrays.copyOf(data, 4));
+    }
+
+    @Test
+    void nothingToDownloadWithoutARecording() {
+        endpoint = endpoint(false, false);
+        endpoint.start();
+
+        assertEquals("NONE", endpoint.status().get("state"));
+        assertNull(endpoint.download("download"));
+    }
+
+    @Test
+    void controlIsOptIn() throws IOException {
+        endpoint = endpoint(false, false);
+        endpoint.start();
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.control("start", null, null).getStatus());
+        assertEquals("NONE", endpoint.status().get("state"));
+
+        endpoint.stop();
+        endpoint = endpoint(false, true);
+        endpoint.start();
+        assertEquals("RUNNING", endpoint.control("start", null, 30L).getBody().get("state"));
+        assertEquals(Duration.ofSeconds(30), endpoint.status().get("maxAge"));
+        assertEquals("STOPPED", endpoint.control("stop", null, null).getBody().get("state"));
+        try (InputStream in = endpoint.download("download").getInputStream()) {
+            assertTrue(in.read() >= 0, "a stopped recording stays downloadable");
+        }
+    }
+
+    private static FlightRecorderEndpoint endpoint(boolean continuous, boolean controlEnabled) {
+        return new FlightRecorderEndpoint(continuous, controlEnabled, "default", MAX_AGE_MS, MAX_SIZE_MB);
+    }
+}
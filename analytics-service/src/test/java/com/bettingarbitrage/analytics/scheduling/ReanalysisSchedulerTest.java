@@ -0,0 +1,189 @@
+package com.bettingarbitrage.analytics.scheduling;
+
+import com.bettingarbitrage.analytics.model.AnalyzeRequest;
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.ScheduleReport;
+import com.bettingarbitrage.analytics.model.ScheduledGroup;
+import com.bettingarbitrage.analytics.service.ArbitrageService;
+import com.bettingarbitrage.analytics.service.CrossMarketDetector;
+import com.bettingarbitrage.analytics.tracking.OpportunityTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReanalysisSchedulerTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+    private static final long MIN_INTERVAL_MS = 1_000;
+    private static final long BASE_INTERVAL_MS = 15_000;
+    private static final long QUOTE_TTL_MS = 60_000;
+
+    @Test
+    void inPlayArbitragesAreDueFirstAndDistantQuietEventsLast() {
+        ReanalysisScheduler scheduler = scheduler(600_000, QUOTE_TTL_MS);
+        Instant inPlay = Instant.ofEpochMilli(T0 - 1);
+        Instant tomorrow = Instant.ofEpochMilli(T0 + 24 * 3_600_000L);
+        scheduler.offer(request(1000, 0, quote("live", "home", "p1", 2.1, inPlay), quote("live", "away", "p2", 2.1, inPlay)), T0);
+        scheduler.offer(request(1000, 0, quote("later", "home", "p1", 1.8, null), quote("later", "away", "p2", 1.9, null)), T0);
+        scheduler.offer(request(1000, 0, quote("far", "home", "p1", 1.8, tomorrow), quote("far", "away", "p2", 1.9, tomorrow)), T0);
+        scheduler.tick(T0);
+
+        // Every group moves, so each comes due one of its own intervals after the first analysis.
+        long now = T0 + 500;
+        scheduler.offer(request(1000, 0, quote("live", "home", "p1", 2.12, inPlay)), now);
+        scheduler.offer(request(1000, 0, quote("later", "home", "p1", 1.81, null)), now);
+        scheduler.offer(request(1000, 0, quote("far", "home", "p1", 1.81, tomorrow)), now);
+
+        List<ScheduledGroup> upcoming = scheduler.report(10, now).getUpcoming();
+        assertEquals(List.of("live", "later", "far"), upcoming.stream().map(ScheduledGroup::getEventId).toList());
+        Map<String, Long> intervals = new HashMap<>();
+        upcoming.forEach(group -> intervals.put(group.getEventId(), group.getIntervalMs()));
+        assertEquals(MIN_INTERVAL_MS, intervals.get("live"));
+        assertTrue(intervals.get("later") < BASE_INTERVAL_MS, "price moves shorten the base interval");
+        assertTrue(intervals.get("far") > 4 * intervals.get("later"), "a start a day out stretches the interval");
+        assertEquals(MIN_INTERVAL_MS - 500, upcoming.get(0).getDueInMs());
+    }
+
+    @Test
+    void onlyChangedGroupsAreReanalysed() {
+        ReanalysisScheduler scheduler = scheduler(600_000, QUOTE_TTL_MS);
+        scheduler.offer(request(1000, 0, quote("e1", "home", "p1", 2.1, null), quote("e1", "away", "p2", 2.1, null)), T0);
+        scheduler.tick(T0);
+        assertEquals(1, scheduler.report(0, T0).getEvaluations());
+
+        // Same prices again: the quotes are refreshed but nothing is re-analysed.
+        scheduler.offer(request(1000, 0, quote("e1", "home", "p1", 2.1, null), quote("e1", "away", "p2", 2.1, null)), T0 + 5_000);
+        scheduler.tick(T0 + 5_000);
+        assertEquals(1, scheduler.report(0, T0 + 5_000).getEvaluations());
+
+        scheduler.offer(request(1000, 0, quote("e1", "home", "p1", 2.2, null)), T0 + 6_000);
+        scheduler.tick(T0 + 6_000);
+        ScheduleReport report = scheduler.report(0, T0 + 6_000);
+        assertEquals(2, report.getEvaluations());
+        assertEquals(2.2, homeOdds(report.getOpportunities().get(0)), 1e-9);
+
+        // A further change waits for the group's interval.
+        scheduler.offer(request(1000, 0, quote("e1", "home", "p1", 2.3, null)), T0 + 6_100);
+        scheduler.tick(T0 + 6_100);
+        assertEquals(2, scheduler.report(0, T0 + 6_100).getEvaluations());
+        scheduler.tick(T0 + 6_000 + MIN_INTERVAL_MS);
+        report = scheduler.report(0, T0 + 6_000 + MIN_INTERVAL_MS);
+        assertEquals(3, report.getEvaluations());
+        assertEquals(2.3, homeOdds(report.getOpportunities().get(0)), 1e-9);
+    }
+
+    @Test
+    void changedSettingsTriggerReanalysisAndStayPerGroup() {
+        ReanalysisScheduler scheduler = scheduler(600_000, QUOTE_TTL_MS);
+        scheduler.offer(request(100, 0, quote("e1", "home", "p1", 2.1, null), quote("e1", "away", "p2", 2.1, null)), T0);
+        scheduler.offer(request(500, 0, quote("e2", "home", "p1", 2.2, null), quote("e2", "away", "p2", 2.2, null)), T0);
+        scheduler.tick(T0);
+
+        Map<String, Double> bankrolls = new HashMap<>();
+        scheduler.report(0, T0).getOpportunities().forEach(o -> bankrolls.put(o.getEventId(), o.getBankroll()));
+        assertEquals(Map.of("e1", 100.0, "e2", 500.0), bankrolls);
+
+        // Raising e2's minimum edge above its margin closes it without touching e1.
+        scheduler.offer(request(500, 0.5, quote("e2", "home", "p1", 2.2, null)), T0 + 2_000);
+        scheduler.tick(T0 + 2_000);
+        ScheduleReport report = scheduler.report(0, T0 + 2_000);
+        assertEquals(List.of("e1"), report.getOpportunities().stream().map(OpportunityResponse::getEventId).toList());
+        assertEquals(100.0, report.getOpportunities().get(0).getBankroll(), 1e-9);
+        assertEquals(3, report.getEvaluatedGroups());
+    }
+
+    @Test
+    void quotesThatAreNoLongerPushedExpire() {
+        ReanalysisScheduler scheduler = scheduler(600_000, QUOTE_TTL_MS);
+        scheduler.offer(request(1000, 0, quote("e1", "home", "p1", 2.1, null), quote("e1", "away", "p2", 2.1, null)), T0);
+        scheduler.tick(T0);
+        assertEquals(1, scheduler.report(0, T0).getOpportunities().size());
+
+        // The away price is withdrawn: its provider stops sending it while the home price keeps being refreshed.
+        scheduler.offer(request(1000, 0, quote("e1", "home", "p1", 2.1, null)), T0 + 30_000);
+        scheduler.tick(T0 + QUOTE_TTL_MS - 1);
+        assertEquals(1, scheduler.report(0, T0 + QUOTE_TTL_MS - 1).getOpportunities().size());
+
+        scheduler.tick(T0 + QUOTE_TTL_MS);
+        ScheduleReport report = scheduler.report(0, T0 + QUOTE_TTL_MS);
+        assertTrue(report.getOpportunities().isEmpty(), "the arbitrage must close with the withdrawn price");
+        assertEquals(1, report.getGroups());
+
+        scheduler.tick(T0 + 30_000 + QUOTE_TTL_MS);
+        assertEquals(0, scheduler.report(0, T0 + 30_000 + QUOTE_TTL_MS).getGroups());
+    }
+
+    @Test
+    void idleGroupsAreDropped() {
+        long idleTimeoutMs = 10_000;
+        ReanalysisScheduler scheduler = scheduler(idleTimeoutMs, 10 * idleTimeoutMs);
+        scheduler.offer(request(1000, 0, quote("e1", "home", "p1", 2.1, null), quote("e1", "away", "p2", 2.1, null)), T0);
+        scheduler.offer(request(1000, 0, quote("e2", "home", "p1", 1.8, null), quote("e2", "away", "p2", 1.9, null)), T0);
+        scheduler.tick(T0);
+        scheduler.offer(request(1000, 0, quote("e2", "home", "p1", 1.8, null)), T0 + 5_000);
+
+        scheduler.tick(T0 + idleTimeoutMs);
+        assertEquals(2, scheduler.report(0, T0 + idleTimeoutMs).getGroups());
+
+        scheduler.tick(T0 + idleTimeoutMs + 1);
+        ScheduleReport report = scheduler.report(10, T0 + idleTimeoutMs + 1);
+        assertEquals(1, report.getGroups());
+        assertEquals(1, report.getEvents());
+        assertEquals("e2", report.getUpcoming().get(0).getEventId());
+        assertTrue(report.getOpportunities().isEmpty());
+    }
+
+    private static ReanalysisScheduler scheduler(long idleTimeoutMs, long quoteTtlMs) {
+        ArbitrageService arbitrageService = new ArbitrageService(
+            new OpportunityTracker(1024, 16, 4096, 600_000), new CrossMarketDetector(false, 4));
+        return new ReanalysisScheduler(arbitrageService, new SimpleMeterRegistry(), true, BASE_INTERVAL_MS,
+            MIN_INTERVAL_MS, 300_000, 3_600_000, 0.01, 0.05, idleTimeoutMs, quoteTtlMs, 256);
+    }
+
+    private static double homeOdds(OpportunityResponse opportunity) {
+        return opportunity.getStakes().stream()
+            .filter(stake -> stake.getRunner().equals("home"))
+            .findFirst()
+            .orElseThrow()
+            .getOdds();
+    }
+
+    private static AnalyzeRequest request(double bankroll, double minimumEdge, MarketSnapshot... quotes) {
+        AnalyzeRequest request = new AnalyzeRequest();
+        request.setBankroll(bankroll);
+        request.setMinimumEdge(minimumEdge);
+        request.setMarkets(new ArrayList<>(List.of(quotes)));
+        return request;
+    }
+
+    private static MarketSnapshot quote(String eventId, String runnerId, String providerId, double odds, Instant startTime) {
+        MarketSnapshot.Runner runner = new MarketSnapshot.Runner();
+        runner.setId(runnerId);
+        runner.setName(runnerId);
+        MarketSnapshot.Provider provider = new MarketSnapshot.Provider();
+        provider.setId(providerId);
+        provider.setName(providerId);
+
+        MarketSnapshot quote = new MarketSnapshot();
+        quote.setEventId(eventId);
+        quote.setEventName(eventId);
+        quote.setMarketName("Match Winner");
+        quote.setMarketType("moneyline");
+        quote.setSport("soccer");
+        quote.setStartTime(startTime);
+        quote.setRunner(runner);
+        quote.setProvider(provider);
+        quote.setOddsDecimal(odds);
+        quote.setImpliedProbability(1.0 / odds);
+        return quote;
+    }
+}
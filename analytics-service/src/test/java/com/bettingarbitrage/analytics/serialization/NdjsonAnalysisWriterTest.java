@@ -0,0 +1,204 @@
+package com.bettingarbitrage.analytics.serialization;
+
+import com.bettingarbitrage.analytics.model.AnalyzeRequest;
+import com.bettingarbitrage.analytics.model.AnalyzeResponse;
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.profiling.AllocationMeter;
+import com.bettingarbitrage.analytics.service.AnalysisBudget;
+import com.bettingarbitrage.analytics.service.ArbitrageService;
+import com.bettingarbitrage.analytics.service.CrossMarketDetector;
+import com.bettingarbitrage.analytics.tracking.OpportunityTracker;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.bettingarbitrage.analytics.serialization.OpportunityFragmentCacheTest.OBJECT_MAPPER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NdjsonAnalysisWriterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OpportunityFragmentCache fragmentCache = new OpportunityFragmentCache(OBJECT_MAPPER, meterRegistry, 100);
+    private final ArbitrageService service = new ArbitrageService(
+        new OpportunityTracker(1024, 16, 4096, 600_000), new CrossMarketDetector(false, 4));
+
+    @Test
+    void streamIsPrefaceThenOpportunitiesInEdgeOrderThenSummary() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NdjsonAnalysisWriter.Stream stream = writer(true).open(out, 2, System.nanoTime());
+
+        AnalyzeResponse response = service.analyzeSnapshot(request(), AnalysisBudget.unlimited(), stream);
+        response.setDroppedQuotes(1);
+        stream.finish(response);
+
+        List<JsonNode> records = records(out);
+        assertEquals(5, records.size());
+
+        JsonNode preface = records.get(0);
+        assertEquals("preface", preface.get("type").asText());
+        assertEquals(List.of("wide", "mid"), textValues(preface.get("groups"), "eventId"));
+
+        List<OpportunityResponse> opportunities = response.getOpportunities();
+        assertEquals(List.of("wide", "mid", "thin"), opportunities.stream().map(OpportunityResponse::getEventId).toList());
+        for (int i = 0; i < opportunities.size(); i++) {
+            JsonNode record = records.get(1 + i);
+            assertEquals("opportunity", record.get("type").asText());
+            assertEquals(OBJECT_MAPPER.readTree(OBJECT_MAPPER.writeValueAsBytes(opportunities.get(i))), record.get("opportunity"));
+        }
+
+        JsonNode summary = records.get(4);
+        assertEquals("summary", summary.get("type").asText());
+        assertEquals(3, summary.get("opportunities").asInt());
+        double firstOpportunityMs = summary.get("timings").get("firstOpportunityMs").asDouble();
+        assertTrue(firstOpportunityMs >= 0 && firstOpportunityMs <= summary.get("timings").get("totalMs").asDouble());
+        assertEquals(1, summary.get("droppedQuotes").asInt());
+        assertFalse(summary.has("partial"));
+        assertTrue(stream.allocatedBytes() > 0, "preface and opportunity writes are counted");
+    }
+
+    @Test
+    void summaryWithAnEmptyEnvelopeIsClosedWithoutASplice() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NdjsonAnalysisWriter.Stream stream = writer(false).open(out, 0, System.nanoTime());
+
+        stream.finish(new AnalyzeResponse(new ArrayList<>()));
+
+        String line = out.toString(StandardCharsets.UTF_8);
+        assertTrue(line.startsWith("{\"type\":\"summary\",\"opportunities\":0,\"timings\":{\"totalMs\":"), line);
+        assertTrue(line.endsWith("}}\n"), line);
+        assertEquals(3, OBJECT_MAPPER.readTree(line).size());
+        assertEquals(0, stream.allocatedBytes(), "nothing is counted with allocation accounting off");
+    }
+
+    @Test
+    void summarySplicesEveryEnvelopePropertyAfterTheTimings() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NdjsonAnalysisWriter.Stream stream = writer(false).open(out, 0, System.nanoTime());
+        AnalyzeResponse response = new AnalyzeResponse(new ArrayList<>());
+        response.setPartial(true);
+        response.setSkippedGroups(4);
+
+        stream.finish(response);
+
+        String line = out.toString(StandardCharsets.UTF_8);
+        assertTrue(line.endsWith("},\"partial\":true,\"skippedGroups\":4}\n"), line);
+        JsonNode summary = OBJECT_MAPPER.readTree(line);
+        assertEquals(List.of("type", "opportunities", "timings", "partial", "skippedGroups"), fieldNames(summary));
+        assertFalse(summary.get("timings").has("firstOpportunityMs"));
+    }
+
+    @Test
+    void clientAbortStopsTheAnalysisAfterTheFailedRecord() {
+        FailingOutputStream out = new FailingOutputStream(1);
+        NdjsonAnalysisWriter.Stream stream = writer(false).open(out, 0, System.nanoTime());
+
+        UncheckedIOException ex = assertThrows(UncheckedIOException.class,
+            () -> service.analyzeSnapshot(request(), AnalysisBudget.unlimited(), stream));
+
+        assertEquals("Broken pipe", ex.getCause().getMessage());
+        assertEquals(2, out.flushes, "the record after the failed one is never written");
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"eventId\":\"wide\""), lines.get(0));
+    }
+
+    private NdjsonAnalysisWriter writer(boolean allocationAccounting) {
+        return new NdjsonAnalysisWriter(OBJECT_MAPPER, fragmentCache,
+            new AllocationMeter(meterRegistry, allocationAccounting, false));
+    }
+
+    private static List<JsonNode> records(ByteArrayOutputStream out) throws IOException {
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("\n"), "every record is newline-terminated");
+        List<JsonNode> records = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            assertFalse(line.isBlank(), "no empty lines between records");
+            records.add(OBJECT_MAPPER.readTree(line));
+        }
+        return records;
+    }
+
+    private static List<String> textValues(JsonNode array, String field) {
+        List<String> values = new ArrayList<>();
+        array.forEach(node -> values.add(node.get(field).asText()));
+        return values;
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private static AnalyzeRequest request() {
+        List<MarketSnapshot> markets = new ArrayList<>();
+        addEvent(markets, "thin", 2.02);
+        addEvent(markets, "wide", 2.3);
+        addEvent(markets, "mid", 2.1);
+
+        AnalyzeRequest request = new AnalyzeRequest();
+        request.setSnapshotTime(Instant.parse("2024-05-01T12:00:00Z"));
+        request.setBankroll(1000);
+        request.setMinimumEdge(0);
+        request.setMarkets(markets);
+        return request;
+    }
+
+    /** Two-way market whose best prices sit with different providers, for an edge of {@code odds / 2 - 1}. */
+    private static void addEvent(List<MarketSnapshot> markets, String eventId, double odds) {
+        markets.add(quote(eventId, "home", "p1", odds));
+        markets.add(quote(eventId, "away", "p1", 1.8));
+        markets.add(quote(eventId, "home", "p2", 1.8));
+        markets.add(quote(eventId, "away", "p2", odds));
+    }
+
+    private static MarketSnapshot quote(String eventId, String runnerId, String providerId, double odds) {
+        MarketSnapshot.Runner runner = new MarketSnapshot.Runner();
+        runner.setId(runnerId);
+        runner.setName(runnerId.equals("home") ? "North " + eventId : "South " + eventId);
+        MarketSnapshot.Provider provider = new MarketSnapshot.Provider();
+        provider.setId(providerId);
+        provider.setName("Provider " + providerId);
+
+        MarketSnapshot quote = new MarketSnapshot();
+        quote.setEventId(eventId);
+        quote.setEventName("North " + eventId + " vs South " + eventId);
+        quote.setMarketName("Match Winner");
+        quote.setMarketType("moneyline");
+        quote.setRunner(runner);
+        quote.setProvider(provider);
+        quote.setOddsDecimal(odds);
+        quote.setImpliedProbability(1.0 / odds);
+        return quote;
+    }
+
+    /** Accepts {@code records} flushed records, then fails like a socket whose client has gone away. */
+    private static final class FailingOutputStream extends ByteArrayOutputStream {
+
+        private final int records;
+        private int flushes;
+
+        FailingOutputStream(int records) {
+            this.records = records;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (++flushes > records) {
+                throw new IOException("Broken pipe");
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bettingarbitrage.analytics.serialization;
+
+import com.bettingarbitrage.analytics.model.AnalyzeResponse;
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares writing an analysis response through {@link OpportunityFragmentCache} with plain Jackson
+ * serialization when every opportunity repeats from the previous poll, as happens between price changes.
+ *
+ * <pre>
+ * mvn -q test-compile
+ * java -cp target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *     com.bettingarbitrage.analytics.serialization.OpportunityFragmentCacheBenchmark [opportunities] [iterations]
+ * </pre>
+ */
+public final class OpportunityFragmentCacheBenchmark {
+
+    private OpportunityFragmentCacheBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        OpportunityFragmentCache cache = new OpportunityFragmentCache(
+            OpportunityFragmentCacheTest.OBJECT_MAPPER, new SimpleMeterRegistry(), count);
+        List<OpportunityResponse> opportunities = new ArrayList<>(count);
+        Instant now = Instant.now();
+        for (int i = 0; i < count; i++) {
+            opportunities.add(OpportunityFragmentCacheTest.opportunity("event-" + i, 2.05 + (i % 50) / 1000.0, now, 0.04));
+        }
+        AnalyzeResponse response = new AnalyzeResponse(opportunities);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(count * 1024);
+        for (int i = 0; i < 10; i++) {
+            out.reset();
+            OpportunityFragmentCacheTest.OBJECT_MAPPER.writeValue(out, response);
+            out.reset();
+            cache.write(response, out);
+        }
+
+        long plain = best(iterations, () -> {
+            out.reset();
+            OpportunityFragmentCacheTest.OBJECT_MAPPER.writeValue(out, response);
+        });
+        long cached = best(iterations, () -> {
+            out.reset();
+            cache.write(response, out);
+        });
+        System.out.printf("opportunities=%d bytes=%d plain=%.2fms cached=%.2fms speedup=%.1fx hitRatio=%.3f%n",
+            count, out.size(), plain / 1e6, cached / 1e6, (double) plain / cached, cache.hitRatio());
+    }
+
+    private static long best(int iterations, Write write) throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            write.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private interface Write {
+        void run() throws IOException;
+    }
+}
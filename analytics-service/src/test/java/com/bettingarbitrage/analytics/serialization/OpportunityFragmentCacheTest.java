@@ -0,0 +1,145 @@
+package com.bettingarbitrage.analytics.serialization;
+
+import com.bettingarbitrage.analytics.model.AnalyzeResponse;
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.SimulationSummary;
+import com.bettingarbitrage.analytics.model.StakeResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OpportunityFragmentCacheTest {
+
+    static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder()
+        .findAndAddModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+
+    private final OpportunityFragmentCache cache = new OpportunityFragmentCache(OBJECT_MAPPER, new SimpleMeterRegistry(), 100);
+
+    @Test
+    void repeatedContentIsServedFromTheCacheWithItsOwnTimestampAndSimulation() throws IOException {
+        OpportunityResponse first = opportunity("e1", 2.1, Instant.parse("2024-05-01T12:00:00Z"), 0.04);
+        OpportunityResponse second = opportunity("e1", 2.1, Instant.parse("2024-05-01T12:00:05Z"), 0.06);
+
+        assertSerializedLikeThePlainMapper(first);
+        assertSerializedLikeThePlainMapper(second);
+        assertEquals(1, cache.size());
+        assertEquals(0.5, cache.hitRatio(), 1e-9);
+
+        JsonNode served = OBJECT_MAPPER.readTree(write(second));
+        assertEquals("2024-05-01T12:00:05Z", served.get("createdAt").asText());
+        assertEquals(0.06, served.get("simulation").get("mean").asDouble(), 1e-9);
+    }
+
+    @Test
+    void anyChangeToThePricedContentMisses() throws IOException {
+        Instant now = Instant.parse("2024-05-01T12:00:00Z");
+        write(opportunity("e1", 2.1, now, 0.04));
+
+        OpportunityResponse otherOdds = opportunity("e1", 2.1000000000000005, now, 0.04);
+        OpportunityResponse otherProvider = opportunity("e1", 2.1, now, 0.04);
+        otherProvider.getStakes().get(1).setProviderName("Renamed");
+        OpportunityResponse otherBankroll = opportunity("e1", 2.1, now, 0.04);
+        otherBankroll.setBankroll(2000);
+        OpportunityResponse otherLeague = opportunity("e1", 2.1, now, 0.04);
+        otherLeague.setLeague(null);
+        OpportunityResponse fewerStakes = opportunity("e1", 2.1, now, 0.04);
+        fewerStakes.setStakes(List.of(fewerStakes.getStakes().get(0)));
+        for (OpportunityResponse changed : List.of(otherOdds, otherProvider, otherBankroll, otherLeague, fewerStakes)) {
+            assertSerializedLikeThePlainMapper(changed);
+        }
+
+        assertEquals(6, cache.size());
+        assertEquals(0.0, cache.hitRatio(), 1e-9);
+    }
+
+    @Test
+    void responseEnvelopeIsSplicedAfterTheOpportunities() throws IOException {
+        Instant now = Instant.parse("2024-05-01T12:00:00Z");
+        AnalyzeResponse response = new AnalyzeResponse(new ArrayList<>(List.of(
+            opportunity("e1", 2.1, now, 0.04), opportunity("e2", 2.2, now, 0.05))));
+        response.setDroppedQuotes(3);
+        response.setPartial(true);
+
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            cache.write(response, out);
+            assertEquals(OBJECT_MAPPER.readTree(OBJECT_MAPPER.writeValueAsBytes(response)), OBJECT_MAPPER.readTree(out.toByteArray()));
+        }
+        assertEquals(0.5, cache.hitRatio(), 1e-9);
+    }
+
+    @Test
+    void uncachedWritesNeitherReadNorFillTheCache() throws IOException {
+        Instant now = Instant.parse("2024-05-01T12:00:00Z");
+        AnalyzeResponse response = new AnalyzeResponse(new ArrayList<>(List.of(opportunity("e1", 2.1, now, 0.04))));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.write(response, out, false);
+        assertEquals(OBJECT_MAPPER.readTree(OBJECT_MAPPER.writeValueAsBytes(response)), OBJECT_MAPPER.readTree(out.toByteArray()));
+        assertEquals(0, cache.size());
+
+        cache.write(response, new ByteArrayOutputStream());
+        cache.write(response, new ByteArrayOutputStream(), false);
+        assertEquals(1, cache.size());
+        assertEquals(0.0, cache.hitRatio(), 1e-9);
+    }
+
+    private void assertSerializedLikeThePlainMapper(OpportunityResponse opportunity) throws IOException {
+        assertEquals(OBJECT_MAPPER.readTree(OBJECT_MAPPER.writeValueAsBytes(opportunity)), OBJECT_MAPPER.readTree(write(opportunity)));
+    }
+
+    private byte[] write(OpportunityResponse opportunity) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.writeOpportunity(opportunity, out);
+        return out.toByteArray();
+    }
+
+    static OpportunityResponse opportunity(String eventId, double homeOdds, Instant createdAt, double simulatedMean) {
+        double awayOdds = 2.2;
+        double sumImplied = 1 / homeOdds + 1 / awayOdds;
+        OpportunityResponse opportunity = new OpportunityResponse();
+        opportunity.setEventId(eventId);
+        opportunity.setEventName(eventId + " Home vs Away");
+        opportunity.setMarketName("Match Winner");
+        opportunity.setSport("soccer");
+        opportunity.setLeague("Premier");
+        opportunity.setBankroll(1000);
+        opportunity.setSumImpliedProbability(sumImplied);
+        opportunity.setGuaranteedProfitFraction(1 / sumImplied - 1);
+        opportunity.setCreatedAt(createdAt);
+        opportunity.setStakes(new ArrayList<>(List.of(
+            stake("home", "p1", homeOdds, sumImplied), stake("away", "p2", awayOdds, sumImplied))));
+
+        SimulationSummary simulation = new SimulationSummary();
+        simulation.setTrials(2_000);
+        simulation.setMean(simulatedMean);
+        opportunity.setSimulation(simulation);
+        return opportunity;
+    }
+
+    private static StakeResponse stake(String runner, String providerId, double odds, double sumImplied) {
+        double fraction = (1 / odds) / sumImplied;
+        StakeResponse stake = new StakeResponse();
+        stake.setRunner(runner);
+        stake.setProviderId(providerId);
+        stake.setProviderName("Provider " + providerId);
+        stake.setOdds(odds);
+        stake.setStakeFraction(fraction);
+        stake.setStakeAmount(1000 * fraction);
+        stake.setPayout(1000 * fraction * odds);
+        return stake;
+    }
+}
@@ -0,0 +1,111 @@
+package com.bettingarbitrage.analytics.service;
+
+import com.bettingarbitrage.analytics.model.AnalyzeResponse;
+import com.bettingarbitrage.analytics.model.SweepResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnalysisBudgetTest {
+
+    private static final long DEADLINE_MS = 60_000;
+
+    @Test
+    void unlimitedBudgetNeverCutsWork() {
+        AnalysisBudget budget = AnalysisBudget.ofMillis(null);
+
+        assertFalse(budget.isLimited());
+        assertFalse(budget.isExpired());
+        assertEquals(50_000, budget.simulationTrials(50_000, 3, 1_000));
+        assertFalse(budget.fork().isLimited());
+        assertFalse(AnalysisBudget.ofMillis(0L).isLimited());
+    }
+
+    @Test
+    void forksShareTheDeadlineButKeepTheirOwnCounters() {
+        AnalysisBudget budget = AnalysisBudget.ofMillis(DEADLINE_MS);
+        AnalysisBudget first = budget.fork();
+        first.skipGroups(3);
+        first.countSimulation(2_000, 500);
+        first.countSimulation(2_000, 0);
+
+        AnalysisBudget second = first.fork();
+        assertTrue(second.isLimited());
+        assertTrue(second.remainingMillis() <= DEADLINE_MS && second.remainingMillis() > DEADLINE_MS - 1_000);
+        assertTrue(first.isPartial());
+        assertFalse(second.isPartial());
+        assertFalse(budget.isPartial());
+        assertEquals(3, first.skippedGroups());
+
+        SweepResult sweep = new SweepResult("s1", 1000, 0.0, new ArrayList<>());
+        first.applyTo(sweep);
+        assertEquals(Boolean.TRUE, sweep.getPartial());
+        assertEquals(3, sweep.getSkippedGroups());
+        assertEquals(1, sweep.getShortenedSimulations());
+        assertEquals(1, sweep.getSkippedSimulations());
+
+        // A simulation that got every trial it asked for cuts nothing.
+        second.countSimulation(2_000, 2_000);
+        assertFalse(second.isPartial());
+    }
+
+    @Test
+    void simulationsThatDoNotFitAreShortenedThenSkippedBelowMinimumTrials() {
+        AnalysisBudget budget = AnalysisBudget.ofMillis(DEADLINE_MS);
+
+        assertEquals(2_000, budget.simulationTrials(2_000, 3, 10));
+        // Half of a minute at the initial 200 ns per trial and runner: about 75 million two-runner trials.
+        int shortened = budget.simulationTrials(Integer.MAX_VALUE, 2, 1);
+        assertTrue(shortened >= 100 && shortened < Integer.MAX_VALUE, () -> "shortened to " + shortened);
+        // Spread over enough pending groups, each share affords fewer than the 100-trial minimum.
+        assertEquals(0, budget.simulationTrials(2_000, 2, 2_000_000));
+
+        AnalyzeResponse response = new AnalyzeResponse(new ArrayList<>());
+        budget.applyTo(response);
+        assertEquals(Boolean.TRUE, response.getPartial());
+        assertEquals(1, response.getShortenedSimulations());
+        assertEquals(1, response.getSkippedSimulations());
+        assertEquals(0, response.getSkippedGroups());
+    }
+
+    @Test
+    void measuredSimulationCostUpdatesTheEstimate() {
+        AnalysisBudget budget = AnalysisBudget.ofMillis(DEADLINE_MS);
+        int initial = budget.simulationTrials(Integer.MAX_VALUE, 1, 1);
+        // 10 µs per sample observed: the estimate moves halfway, so far fewer trials fit.
+        budget.recordSimulation(10_000_000L, 1_000, 1);
+        int measured = budget.simulationTrials(Integer.MAX_VALUE, 1, 1);
+        assertTrue(measured < initial / 10, () -> initial + " -> " + measured);
+    }
+
+    @Test
+    void expiredBudgetAffordsNoSimulation() throws InterruptedException {
+        AnalysisBudget budget = AnalysisBudget.ofMillis(1L);
+        Thread.sleep(5);
+
+        assertTrue(budget.isExpired());
+        assertEquals(0, budget.remainingMillis());
+        assertEquals(0, budget.simulationTrials(2_000, 2, 1));
+        assertEquals(0, budget.fork().remainingMillis());
+    }
+
+    @Test
+    void skippedDiscoveryMarksTheResultPartial() {
+        AnalysisBudget budget = AnalysisBudget.ofMillis(DEADLINE_MS);
+        AnalyzeResponse untouched = new AnalyzeResponse(new ArrayList<>());
+        budget.applyTo(untouched);
+        assertNull(untouched.getPartial());
+
+        budget.skipDiscovery();
+        AnalyzeResponse response = new AnalyzeResponse(new ArrayList<>());
+        budget.applyTo(response);
+        assertEquals(Boolean.TRUE, response.getPartial());
+        assertEquals(0, response.getSkippedGroups());
+        assertEquals(0, response.getSkippedSimulations());
+    }
+}
@@ -0,0 +1,132 @@
+package com.bettingarbitrage.analytics.service;
+
+import com.bettingarbitrage.analytics.model.AnalyzeRequest;
+import com.bettingarbitrage.analytics.model.AnalyzeResponse;
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.SimulateRequest;
+import com.bettingarbitrage.analytics.tracking.OpportunityTracker;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Allocation budgets for the analysis hot path, measured with the HotSpot per-thread allocation counter on a
+ * fixed, seeded snapshot. Each figure is the minimum over several runs after warm-up, so JIT state and TLAB
+ * refills do not make the test flaky; a budget failing means the code really allocates more per unit of work.
+ *
+ * <p>The snapshot stays below {@link CrossMarketDetector}'s parallel threshold so that all work happens on the
+ * measuring thread. Budgets carry roughly 1.5x headroom over the measured figures; lower them when an
+ * optimisation lands so the gain is locked in.
+ */
+class ArbitrageServiceAllocationTest {
+
+    private static final int EVENTS = 24;
+    private static final int PROVIDERS = 4;
+    private static final int SIMULATION_TRIALS = 20_000;
+
+    private static final long ANALYZE_BYTES_PER_QUOTE = 5_200;
+    private static final long SIMULATION_BYTES_PER_TRIAL = 44;
+
+    private static final int WARMUP_RUNS = 30;
+    private static final int MEASURED_RUNS = 15;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeAll
+    static void enableAllocationCounter() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+            "per-thread allocation counter not available on this JVM");
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "per-thread allocation counter not supported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    void analyzeSnapshotStaysWithinPerQuoteBudget() {
+        List<MarketSnapshot> quotes = snapshot();
+        ArbitrageService service = newService();
+        AnalyzeResponse response = service.analyzeSnapshot(request(quotes));
+        assertFalse(response.getOpportunities().isEmpty(), "fixture should contain arbitrage");
+
+        long bytes = minimumAllocation(() -> service.analyzeSnapshot(request(quotes)));
+        long perQuote = bytes / quotes.size();
+        assertTrue(perQuote <= ANALYZE_BYTES_PER_QUOTE, () -> String.format(
+            "analyzeSnapshot allocated %d bytes per quote (%d bytes for %d quotes), budget %d",
+            perQuote, bytes, quotes.size(), ANALYZE_BYTES_PER_QUOTE));
+    }
+
+    @Test
+    void runSimulationStaysWithinPerTrialBudget() {
+        ArbitrageService service = newService();
+        AnalyzeResponse response = service.analyzeSnapshot(request(snapshot()));
+        assertFalse(response.getOpportunities().isEmpty(), "fixture should contain arbitrage");
+        SimulateRequest simulation = new SimulateRequest();
+        simulation.setOpportunity(largestOpportunity(response.getOpportunities()));
+        simulation.setTrials(SIMULATION_TRIALS);
+
+        long bytes = minimumAllocation(() -> service.runSimulation(simulation));
+        long perTrial = bytes / SIMULATION_TRIALS;
+        assertTrue(perTrial <= SIMULATION_BYTES_PER_TRIAL, () -> String.format(
+            "runSimulation allocated %d bytes per trial (%d bytes for %d trials of %d legs), budget %d",
+            perTrial, bytes, SIMULATION_TRIALS, simulation.getOpportunity().getStakes().size(),
+            SIMULATION_BYTES_PER_TRIAL));
+    }
+
+    private static long minimumAllocation(Supplier<?> work) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            work.get();
+        }
+        long minimum = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            work.get();
+            minimum = Math.min(minimum, threads.getCurrentThreadAllocatedBytes() - before);
+        }
+        return minimum;
+    }
+
+    private static ArbitrageService newService() {
+        return new ArbitrageService(new OpportunityTracker(8192, 32, 65536, 600_000), new CrossMarketDetector(true, 4));
+    }
+
+    private static OpportunityResponse largestOpportunity(List<OpportunityResponse> opportunities) {
+        OpportunityResponse largest = opportunities.get(0);
+        for (OpportunityResponse opportunity : opportunities) {
+            if (opportunity.getStakes().size() > largest.getStakes().size()) {
+                largest = opportunity;
+            }
+        }
+        return largest;
+    }
+
+    private static AnalyzeRequest request(List<MarketSnapshot> quotes) {
+        AnalyzeRequest request = new AnalyzeRequest();
+        request.setSnapshotTime(Instant.parse("2024-01-01T12:00:00Z"));
+        request.setBankroll(1000);
+        request.setMinimumEdge(0.0);
+        request.setMarkets(new ArrayList<>(quotes));
+        return request;
+    }
+
+    /**
+     * Per event: a 3-way result, double chance, draw-no-bet and a ladder of totals, priced by each provider with
+     * a ~2% margin and seeded noise, so some markets and cross-market covers are arbitrages.
+     */
+    private static List<MarketSnapshot> snapshot() {
+        return new MarketFixtures.SoccerSnapshot(EVENTS, PROVIDERS)
+            .totals(1.5, 3.5, 1.0)
+            .priced(0.98, 0.04, true)
+            .build(new Random(7));
+    }
+}
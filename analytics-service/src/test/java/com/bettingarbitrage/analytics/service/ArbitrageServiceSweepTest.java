@@ -0,0 +1,154 @@
+package com.bettingarbitrage.analytics.service;
+
+import com.bettingarbitrage.analytics.model.AnalyzeRequest;
+import com.bettingarbitrage.analytics.model.AnalyzeResponse;
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.ParameterSet;
+import com.bettingarbitrage.analytics.model.SweepResult;
+import com.bettingarbitrage.analytics.tracking.OpportunityTracker;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArbitrageServiceSweepTest {
+
+    private final ArbitrageService service = new ArbitrageService(
+        new OpportunityTracker(1024, 16, 4096, 600_000), new CrossMarketDetector(false, 4));
+
+    @Test
+    void sweepsFollowTheRequestOrderAndListOpportunitiesByEdge() {
+        AnalyzeRequest request = request(
+            parameterSet("strict", 1000, 0.02, null),
+            parameterSet("large", 5000, 0, 500),
+            parameterSet("none", 1000, 0.5, null),
+            parameterSet("default-bankroll", 0, 0.1, null));
+        List<String> streamed = new ArrayList<>();
+
+        AnalyzeResponse response = service.analyzeSnapshot(request, AnalysisBudget.unlimited(), new AnalysisListener() {
+            @Override
+            public void onOpportunity(OpportunityResponse opportunity) {
+                streamed.add(opportunity.getEventId());
+            }
+        });
+
+        List<OpportunityResponse> primary = response.getOpportunities();
+        assertEquals(List.of("wide", "mid", "thin"), eventIds(primary));
+        assertEquals(List.of("wide", "mid", "thin"), streamed, "only the request's own opportunities are streamed");
+        assertEquals(2_000, primary.get(0).getSimulation().getTrials());
+
+        List<SweepResult> sweeps = response.getSweeps();
+        assertEquals(List.of("strict", "large", "none", "default-bankroll"), sweeps.stream().map(SweepResult::getId).toList());
+
+        SweepResult strict = sweeps.get(0);
+        assertEquals(0.02, strict.getMinimumEdge(), 1e-9);
+        assertEquals(List.of("wide", "mid"), eventIds(strict.getOpportunities()));
+        // Same bankroll and trials as the request: its opportunities are reused rather than evaluated again.
+        assertSame(primary.get(0), strict.getOpportunities().get(0));
+        assertSame(primary.get(1), strict.getOpportunities().get(1));
+
+        SweepResult large = sweeps.get(1);
+        assertEquals(5000, large.getBankroll(), 1e-9);
+        assertEquals(List.of("wide", "mid", "thin"), eventIds(large.getOpportunities()));
+        for (int i = 0; i < primary.size(); i++) {
+            OpportunityResponse scaled = large.getOpportunities().get(i);
+            assertNotSame(primary.get(i), scaled);
+            assertEquals(5000, scaled.getBankroll(), 1e-9);
+            assertEquals(5 * primary.get(i).getStakes().get(0).getStakeAmount(), scaled.getStakes().get(0).getStakeAmount(), 1e-6);
+            assertEquals(500, scaled.getSimulation().getTrials());
+        }
+
+        assertTrue(sweeps.get(2).getOpportunities().isEmpty());
+        assertNull(sweeps.get(2).getPartial());
+
+        SweepResult defaultBankroll = sweeps.get(3);
+        assertEquals(1000, defaultBankroll.getBankroll(), 1e-9);
+        assertEquals(List.of("wide"), eventIds(defaultBankroll.getOpportunities()));
+        assertSame(primary.get(0), defaultBankroll.getOpportunities().get(0));
+    }
+
+    @Test
+    void expiredBudgetReturnsEveryParameterSetEmptyAndPartial() throws InterruptedException {
+        AnalysisBudget budget = AnalysisBudget.ofMillis(1L);
+        Thread.sleep(5);
+
+        AnalyzeResponse response = service.analyzeSnapshot(
+            request(parameterSet("strict", 1000, 0.02, null), parameterSet("large", 5000, 0, 500)), budget);
+
+        assertTrue(response.getOpportunities().isEmpty());
+        assertEquals(Boolean.TRUE, response.getPartial());
+        assertEquals(List.of("strict", "large"), response.getSweeps().stream().map(SweepResult::getId).toList());
+        for (SweepResult sweep : response.getSweeps()) {
+            assertTrue(sweep.getOpportunities().isEmpty());
+            assertEquals(Boolean.TRUE, sweep.getPartial());
+        }
+    }
+
+    @Test
+    void sweepsAreLimitedInSizeAndTrials() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        assertTrue(validator.validate(request(parameterSet("s", 1000, 0, 100_000))).isEmpty());
+
+        AnalyzeRequest tooManyTrials = request(parameterSet("s", 1000, 0, 100_001));
+        assertEquals(List.of("parameterSets[0].trials"), propertyPaths(validator.validate(tooManyTrials)));
+
+        AnalyzeRequest tooManySets = request(Collections.nCopies(33, parameterSet("s", 1000, 0, null)).toArray(new ParameterSet[0]));
+        assertEquals(List.of("parameterSets"), propertyPaths(validator.validate(tooManySets)));
+    }
+
+    private static AnalyzeRequest request(ParameterSet... parameterSets) {
+        List<MarketSnapshot> quotes = new ArrayList<>();
+        addEvent(quotes, "thin", 0, 2.02);
+        addEvent(quotes, "wide", 1, 2.3);
+        addEvent(quotes, "mid", 2, 2.1);
+
+        AnalyzeRequest request = new AnalyzeRequest();
+        request.setSnapshotTime(Instant.parse("2024-05-01T12:00:00Z"));
+        request.setBankroll(1000);
+        request.setMinimumEdge(0);
+        request.setMarkets(quotes);
+        request.setParameterSets(List.of(parameterSets));
+        return request;
+    }
+
+    /** Two-way market whose best prices sit with different providers, for an edge of {@code odds / 2 - 1}. */
+    private static void addEvent(List<MarketSnapshot> quotes, String eventId, int event, double odds) {
+        String eventName = MarketFixtures.eventName(event);
+        String home = MarketFixtures.homeTeam(event);
+        String away = MarketFixtures.awayTeam(event);
+        quotes.add(MarketFixtures.quote(eventId, eventName, "Match Winner", "moneyline", null, home, odds, "p1"));
+        quotes.add(MarketFixtures.quote(eventId, eventName, "Match Winner", "moneyline", null, away, 1.8, "p1"));
+        quotes.add(MarketFixtures.quote(eventId, eventName, "Match Winner", "moneyline", null, home, 1.8, "p2"));
+        quotes.add(MarketFixtures.quote(eventId, eventName, "Match Winner", "moneyline", null, away, odds, "p2"));
+    }
+
+    private static ParameterSet parameterSet(String id, double bankroll, double minimumEdge, Integer trials) {
+        ParameterSet parameters = new ParameterSet();
+        parameters.setId(id);
+        parameters.setBankroll(bankroll);
+        parameters.setMinimumEdge(minimumEdge);
+        parameters.setTrials(trials);
+        return parameters;
+    }
+
+    private static List<String> propertyPaths(Set<ConstraintViolation<AnalyzeRequest>> violations) {
+        return violations.stream().map(violation -> violation.getPropertyPath().toString()).toList();
+    }
+
+    private static List<String> eventIds(List<OpportunityResponse> opportunities) {
+        return opportunities.stream().map(OpportunityResponse::getEventId).toList();
+    }
+}
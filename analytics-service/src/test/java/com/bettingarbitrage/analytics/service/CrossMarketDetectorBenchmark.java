@@ -0,0 +1,55 @@
+package com.bettingarbitrage.analytics.service;
+
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Throughput check for {@link CrossMarketDetector} on events with dozens of related markets: a 3-way result,
+ * double chance, draw-no-bet, a ladder of spreads and a ladder of totals, each priced by several providers.
+ *
+ * <pre>
+ * mvn -q test-compile
+ * java -cp target/classes:target/test-classes \
+ *     com.bettingarbitrage.analytics.service.CrossMarketDetectorBenchmark [events] [providers] [iterations]
+ * </pre>
+ */
+public final class CrossMarketDetectorBenchmark {
+
+    private CrossMarketDetectorBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int providers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        // Bookmaker margin of ~5% with per-provider noise, so a few events contain arbitrage.
+        List<MarketSnapshot> quotes = new MarketFixtures.SoccerSnapshot(events, providers)
+            .spreads(-3.5, 3.5)
+            .totals(0.5, 6.5, 0.5)
+            .priced(0.95, 0.03, false)
+            .build(new Random(42));
+        CrossMarketDetector detector = new CrossMarketDetector(true, 4);
+        long markets = quotes.stream().map(q -> q.getEventId() + q.getMarketName()).distinct().count();
+        System.out.printf("events=%d markets/event=%d quotes=%d%n", events, markets / events, quotes.size());
+
+        for (int i = 0; i < 5; i++) {
+            detector.detect(quotes);
+        }
+
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        int covers = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            covers = detector.detect(quotes).size();
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+        System.out.printf("covers=%d best=%.2fms mean=%.2fms per-event=%.1fus%n",
+            covers, best / 1e6, total / 1e6 / iterations, total / 1e3 / iterations / events);
+    }
+}
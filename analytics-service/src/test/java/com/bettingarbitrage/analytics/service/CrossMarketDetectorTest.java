@@ -0,0 +1,160 @@
+package com.bettingarbitrage.analytics.service;
+
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.bettingarbitrage.analytics.service.MarketFixtures.quote;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CrossMarketDetectorTest {
+
+    private static final String EVENT = "Schalke 04 vs Hertha";
+    private static final String[] TEAMS = {"schalke 04", "hertha"};
+
+    private final CrossMarketDetector detector = new CrossMarketDetector(true, 4);
+
+    @Test
+    void teamNameDigitsAreNotReadAsHandicap() {
+        // Schalke -3.5 only wins by four or more; with Hertha winning there is a gap at margins 0..3.
+        List<MarketSnapshot> quotes = List.of(
+            quote("e1", EVENT, "Asian Handicap", "spread", null, "Schalke 04 -3.5", 4.0, "p1"),
+            quote("e1", EVENT, "Match Result", "moneyline", null, "Hertha", 5.0, "p2")
+        );
+
+        assertTrue(detector.detect(quotes).isEmpty());
+        assertWins(quotes.get(0), CrossMarketDetector.Dimension.MARGIN, 4, CrossMarketDetector.MAX);
+    }
+
+    @Test
+    void unicodeMinusAndLineFieldAreUsedForHandicaps() {
+        assertWins(quote("e1", EVENT, "Handicap", "spread", null, "Schalke 04 −1.5", 3.0, "p1"),
+            CrossMarketDetector.Dimension.MARGIN, 2, CrossMarketDetector.MAX);
+        // The line field is the home handicap; the away runner takes the opposite side.
+        assertWins(quote("e1", EVENT, "Handicap", "spread", -1.5, "Schalke 04", 3.0, "p1"),
+            CrossMarketDetector.Dimension.MARGIN, 2, CrossMarketDetector.MAX);
+        assertWins(quote("e1", EVENT, "Handicap", "spread", -1.5, "Hertha", 1.4, "p1"),
+            CrossMarketDetector.Dimension.MARGIN, CrossMarketDetector.MIN, 1);
+    }
+
+    @Test
+    void firstHalfResultIsNotMixedWithFullTime() {
+        List<MarketSnapshot> quotes = List.of(
+            quote("e1", EVENT, "1st Half Result", "moneyline", null, "Schalke 04", 2.9, "p1"),
+            quote("e1", EVENT, "Match Result", "moneyline", null, "Draw", 3.8, "p2"),
+            quote("e1", EVENT, "Match Result", "moneyline", null, "Hertha", 6.67, "p3")
+        );
+
+        assertTrue(detector.detect(quotes).isEmpty());
+        assertNotEquals(axis(quotes.get(0)), axis(quotes.get(1)));
+    }
+
+    @Test
+    void scopeKeysOnPeriodAndStatistic() {
+        assertEquals("", CrossMarketDetector.scope("match result"));
+        assertEquals("", CrossMarketDetector.scope("total goals"));
+        assertEquals("1half", CrossMarketDetector.scope("1st half result"));
+        assertEquals("1half", CrossMarketDetector.scope("first half - asian handicap"));
+        assertEquals("2half|corner", CrossMarketDetector.scope("2nd half total corners"));
+        assertEquals("3quarter", CrossMarketDetector.scope("3rd quarter spread"));
+        assertEquals("+et", CrossMarketDetector.scope("moneyline (including overtime)"));
+        assertEquals("|card", CrossMarketDetector.scope("total cards"));
+    }
+
+    @Test
+    void cornersAreNotMixedWithGoals() {
+        List<MarketSnapshot> quotes = List.of(
+            quote("e1", EVENT, "Total Corners", "total", 9.5, "Over", 2.2, "p1"),
+            quote("e1", EVENT, "Total Goals", "total", 9.5, "Under", 1.05, "p2")
+        );
+
+        assertTrue(detector.detect(quotes).isEmpty());
+    }
+
+    @Test
+    void unsupportedMarketsAreNotClassified() {
+        assertNull(CrossMarketDetector.classify(
+            quote("e1", EVENT, "Player Total Shots", "total", 2.5, "Over", 2.0, "p1"), TEAMS));
+        assertNull(CrossMarketDetector.classify(
+            quote("e1", EVENT, "Schalke 04 Team Total", "total", 1.5, "Under", 2.0, "p1"), TEAMS));
+        assertNull(CrossMarketDetector.classify(
+            quote("e1", EVENT, "Correct Score", "other", null, "Schalke 04 2-1", 9.0, "p1"), TEAMS));
+        // Without a line there is nothing to read a total from.
+        assertNull(CrossMarketDetector.classify(
+            quote("e1", EVENT, "Total Goals 2.5", "total", null, "Over", 2.0, "p1"), TEAMS));
+    }
+
+    @Test
+    void findsResultAgainstDoubleChance() {
+        List<MarketSnapshot> quotes = List.of(
+            quote("e1", EVENT, "Match Result", "moneyline", null, "Schalke 04", 2.4, "p1"),
+            quote("e1", EVENT, "Double Chance", "other", null, "X2", 1.9, "p2")
+        );
+
+        List<CrossMarketDetector.Cover> covers = detector.detect(quotes);
+
+        assertEquals(1, covers.size());
+        assertEquals("Match Result + Double Chance", covers.get(0).getLabel());
+        assertEquals(1 / 2.4 + 1 / 1.9, covers.get(0).getSumImplied(), 1e-9);
+    }
+
+    @Test
+    void findsMiddleAcrossTotalLines() {
+        List<MarketSnapshot> quotes = List.of(
+            quote("e1", EVENT, "Total Goals", "total", 2.5, "Over", 2.1, "p1"),
+            quote("e1", EVENT, "Alternative Total Goals", "total", null, "Under 3.5", 2.2, "p2")
+        );
+
+        List<CrossMarketDetector.Cover> covers = detector.detect(quotes);
+
+        assertEquals(1, covers.size());
+        assertEquals(2, covers.get(0).getLegs().size());
+    }
+
+    @Test
+    void findsResultAgainstHandicapWithDigitsInTeamName() {
+        List<MarketSnapshot> quotes = List.of(
+            quote("e1", EVENT, "Match Result", "moneyline", null, "Schalke 04", 2.2, "p1"),
+            quote("e1", EVENT, "Asian Handicap", "spread", null, "Hertha +0.5", 1.95, "p2")
+        );
+
+        assertEquals(1, detector.detect(quotes).size());
+    }
+
+    @Test
+    void quarterLinesAreNotTreatedAsFullWins() {
+        // Hertha +0.25 only half-wins on a draw: this pair returns about 0.81 of the stake there, not a 12.5% edge.
+        List<MarketSnapshot> quotes = List.of(
+            quote("e1", EVENT, "Match Result", "moneyline", null, "Schalke 04", 2.2, "p1"),
+            quote("e1", EVENT, "Asian Handicap", "spread", null, "Hertha +0.25", 2.3, "p2")
+        );
+
+        assertTrue(detector.detect(quotes).isEmpty());
+        assertNull(CrossMarketDetector.classify(quotes.get(1), TEAMS));
+        assertNull(CrossMarketDetector.classify(
+            quote("e1", EVENT, "Handicap", "spread", -0.75, "Schalke 04", 2.0, "p1"), TEAMS));
+        assertNull(CrossMarketDetector.classify(
+            quote("e1", EVENT, "Total Goals", "total", 2.25, "Under", 2.0, "p1"), TEAMS));
+        assertNull(CrossMarketDetector.classify(
+            quote("e1", EVENT, "Alternative Total Goals", "total", null, "Over 2.75", 2.0, "p1"), TEAMS));
+        // Whole lines stay: the push at exactly two goals counts as a loss.
+        assertWins(quote("e1", EVENT, "Total Goals", "total", 2.0, "Under", 2.0, "p1"),
+            CrossMarketDetector.Dimension.TOTAL, CrossMarketDetector.MIN, 1);
+    }
+
+    private static CrossMarketDetector.Axis axis(MarketSnapshot quote) {
+        return CrossMarketDetector.classify(quote, TEAMS).getAxis();
+    }
+
+    private static void assertWins(MarketSnapshot quote, CrossMarketDetector.Dimension dimension, long from, long to) {
+        CrossMarketDetector.Leg leg = CrossMarketDetector.classify(quote, TEAMS);
+        assertEquals(dimension, leg.getAxis().dimension());
+        assertEquals(1, leg.getWins().size());
+        assertArrayEquals(new long[] {from, to}, leg.getWins().get(0));
+    }
+}
@@ -0,0 +1,181 @@
+package com.bettingarbitrage.analytics.service;
+
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Quote builders shared by the service tests and benchmarks. Team names are digit-free so that nothing but the
+ * {@code line} field can be read as a handicap or total.
+ */
+final class MarketFixtures {
+
+    private MarketFixtures() {
+    }
+
+    static String homeTeam(int event) {
+        return "North " + letters(event);
+    }
+
+    static String awayTeam(int event) {
+        return "South " + letters(event);
+    }
+
+    static String eventName(int event) {
+        return homeTeam(event) + " vs " + awayTeam(event);
+    }
+
+    static MarketSnapshot quote(
+        String eventId,
+        String eventName,
+        String marketName,
+        String marketType,
+        Double line,
+        String runnerName,
+        double odds,
+        String providerId
+    ) {
+        MarketSnapshot.Runner runner = new MarketSnapshot.Runner();
+        runner.setId(runnerName.toLowerCase(Locale.ROOT));
+        runner.setName(runnerName);
+        MarketSnapshot.Provider provider = new MarketSnapshot.Provider();
+        provider.setId(providerId);
+        provider.setName(providerId);
+
+        MarketSnapshot quote = new MarketSnapshot();
+        quote.setEventId(eventId);
+        quote.setEventName(eventName);
+        quote.setMarketName(marketName);
+        quote.setMarketType(marketType);
+        quote.setLine(line);
+        quote.setRunner(runner);
+        quote.setProvider(provider);
+        quote.setOddsDecimal(odds);
+        quote.setImpliedProbability(1.0 / odds);
+        return quote;
+    }
+
+    /**
+     * Soccer events with dozens of related markets: a 3-way result, double chance, draw-no-bet and optional
+     * ladders of spreads and totals, each priced by several providers around a fair price with seeded noise.
+     * Fixtures built with the same settings and seed are identical, so budgets and benchmarks stay comparable.
+     */
+    static final class SoccerSnapshot {
+
+        private final int events;
+        private final int providers;
+        private double spreadFrom = 0;
+        private double spreadTo = -1;
+        private double totalFrom = 0;
+        private double totalTo = -1;
+        private double totalStep = 1.0;
+        private double payout = 0.95;
+        private double noise = 0.03;
+        private boolean cents;
+
+        SoccerSnapshot(int events, int providers) {
+            this.events = events;
+            this.providers = providers;
+        }
+
+        /** Adds a home/away spread market for every whole-goal step from {@code from} to {@code to}. */
+        SoccerSnapshot spreads(double from, double to) {
+            this.spreadFrom = from;
+            this.spreadTo = to;
+            return this;
+        }
+
+        /** Adds an over/under market for every {@code step} from {@code from} to {@code to}. */
+        SoccerSnapshot totals(double from, double to, double step) {
+            this.totalFrom = from;
+            this.totalTo = to;
+            this.totalStep = step;
+            return this;
+        }
+
+        /**
+         * Prices quotes at {@code fairOdds * (payout + gaussian * noise)}, optionally rounded to cents the way
+         * providers publish them. A payout below 1 is the bookmaker margin.
+         */
+        SoccerSnapshot priced(double payout, double noise, boolean cents) {
+            this.payout = payout;
+            this.noise = noise;
+            this.cents = cents;
+            return this;
+        }
+
+        List<MarketSnapshot> build(Random random) {
+            List<MarketSnapshot> quotes = new ArrayList<>();
+            for (int e = 0; e < events; e++) {
+                String eventId = "event-" + e;
+                String eventName = eventName(e);
+                String home = homeTeam(e);
+                String away = awayTeam(e);
+                for (int p = 0; p < providers; p++) {
+                    String provider = "provider-" + p;
+                    add(quotes, eventId, eventName, "Match Result", "moneyline", null, home, 2.4, provider, random);
+                    add(quotes, eventId, eventName, "Match Result", "moneyline", null, "Draw", 3.3, provider, random);
+                    add(quotes, eventId, eventName, "Match Result", "moneyline", null, away, 3.1, provider, random);
+                    add(quotes, eventId, eventName, "Double Chance", "other", null, "1X", 1.35, provider, random);
+                    add(quotes, eventId, eventName, "Double Chance", "other", null, "X2", 1.55, provider, random);
+                    add(quotes, eventId, eventName, "Double Chance", "other", null, "12", 1.3, provider, random);
+                    add(quotes, eventId, eventName, "Draw No Bet", "other", null, home, 1.75, provider, random);
+                    add(quotes, eventId, eventName, "Draw No Bet", "other", null, away, 2.1, provider, random);
+                    for (double line = spreadFrom; line <= spreadTo; line += 1.0) {
+                        String market = "Spread " + line;
+                        double homePrice = 1.9 * Math.exp(0.35 * -line);
+                        add(quotes, eventId, eventName, market, "spread", line, home, 1.05 + homePrice / 2, provider, random);
+                        add(quotes, eventId, eventName, market, "spread", line, away, 1.05 + 1.9 / homePrice, provider, random);
+                    }
+                    for (double line = totalFrom; line <= totalTo; line += totalStep) {
+                        String market = "Total Goals " + line;
+                        double overPrice = 1.2 + 0.45 * line;
+                        add(quotes, eventId, eventName, market, "total", line, "Over", overPrice, provider, random);
+                        add(quotes, eventId, eventName, market, "total", line, "Under", 1.0 + 1.0 / (overPrice - 1.0), provider, random);
+                    }
+                }
+            }
+            return quotes;
+        }
+
+        private void add(
+            List<MarketSnapshot> quotes,
+            String eventId,
+            String eventName,
+            String marketName,
+            String marketType,
+            Double line,
+            String runnerName,
+            double fairOdds,
+            String providerId,
+            Random random
+        ) {
+            double odds = fairOdds * (payout + random.nextGaussian() * noise);
+            if (cents) {
+                odds = Math.round(odds * 100) / 100.0;
+            }
+            quotes.add(quote(eventId, eventName, marketName, marketType, line, runnerName, Math.max(1.01, odds), providerId));
+        }
+    }
+
+    /**
+     * {@code 0 -> "Aa"}, {@code 1 -> "Ab"}, ...: a unique, digit-free suffix per event.
+     */
+    private static String letters(int index) {
+        StringBuilder letters = new StringBuilder();
+        int rest = index;
+        do {
+            letters.append((char) ('a' + rest % 26));
+            rest /= 26;
+        } while (rest > 0);
+        if (letters.length() < 2) {
+            letters.append('a');
+        }
+        letters.reverse();
+        letters.setCharAt(0, Character.toUpperCase(letters.charAt(0)));
+        return letters.toString();
+    }
+}
@@ -0,0 +1,172 @@
+package com.bettingarbitrage.analytics.service;
+
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.PortfolioAllocation;
+import com.bettingarbitrage.analytics.model.PortfolioSettings;
+import com.bettingarbitrage.analytics.model.PositionAllocation;
+import com.bettingarbitrage.analytics.model.RiskMetrics;
+import com.bettingarbitrage.analytics.model.StakeResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PortfolioAllocatorTest {
+
+    private static final double BANKROLL = 10_000;
+    private static final double TOLERANCE = 1e-6;
+    private static final int PROVIDERS = 6;
+
+    private final PortfolioAllocator allocator = new PortfolioAllocator();
+
+    @Test
+    void respectsBankrollCapsAndProviderLimits() {
+        PortfolioSettings settings = settings(0.02, 0.3);
+        settings.setProviderLimits(Map.of("provider-0", 500.0));
+        List<OpportunityResponse> opportunities = opportunities(3_000, new Random(11));
+
+        assertInvariants(opportunities, settings, allocator.allocate(opportunities, BANKROLL, settings));
+    }
+
+    @Test
+    void spendsTheBankrollWhenNoLimitBinds() {
+        List<OpportunityResponse> opportunities = opportunities(200, new Random(3));
+        PortfolioSettings settings = settings(1.0, 1.0);
+
+        PortfolioAllocation allocation = allocator.allocate(opportunities, BANKROLL, settings);
+
+        assertInvariants(opportunities, settings, allocation);
+        assertEquals(BANKROLL, allocation.getAllocated(), TOLERANCE);
+    }
+
+    @Test
+    void cascadingCapsConvergeInFewRounds() {
+        // Halving edges: each capped opportunity frees just enough budget to cap the next, which took one round per
+        // capped opportunity (over a hundred here) when the budget was poured without solving the level.
+        List<OpportunityResponse> opportunities = new ArrayList<>();
+        for (int k = 0; k < 3_000; k++) {
+            opportunities.add(opportunity(k, 0.05 * Math.pow(0.5, k), null,
+                new String[] {"provider-" + (k % PROVIDERS), "provider-" + ((k + 1) % PROVIDERS)}, new double[] {0.5, 0.5}));
+        }
+        PortfolioSettings settings = settings(0.001, 1.0);
+
+        PortfolioAllocation allocation = allocator.allocate(opportunities, BANKROLL, settings);
+
+        assertInvariants(opportunities, settings, allocation);
+        assertEquals(BANKROLL, allocation.getAllocated(), TOLERANCE);
+        assertTrue(allocation.getIterations() <= PROVIDERS + 2,
+            () -> "took " + allocation.getIterations() + " rounds");
+    }
+
+    @Test
+    void roundCountDoesNotGrowWithTheNumberOfOpportunities() {
+        // A round is one linear fill over the opportunities, and allocate stops after at most PROVIDERS + 2 rounds
+        // whether or not the level was solved. Solving well inside that bound at every size keeps allocate linear;
+        // wall-clock timing lives in PortfolioAllocatorBenchmark.
+        PortfolioSettings settings = settings(0.005, 0.25);
+        for (int count : new int[] {500, 5_000, 20_000}) {
+            List<OpportunityResponse> opportunities = opportunities(count, new Random(5));
+
+            PortfolioAllocation allocation = allocator.allocate(opportunities, BANKROLL, settings);
+
+            assertInvariants(opportunities, settings, allocation);
+            assertEquals(BANKROLL, allocation.getAllocated(), TOLERANCE);
+            assertTrue(allocation.getIterations() <= 2,
+                () -> "took " + allocation.getIterations() + " rounds for " + count + " opportunities");
+        }
+    }
+
+    private static void assertInvariants(
+        List<OpportunityResponse> opportunities,
+        PortfolioSettings settings,
+        PortfolioAllocation allocation
+    ) {
+        double cap = settings.getMaxOpportunityFraction() * BANKROLL;
+        Map<String, Double> exposure = new HashMap<>();
+        double total = 0.0;
+        for (PositionAllocation position : allocation.getPositions()) {
+            assertTrue(position.getAmount() >= 0, "negative position");
+            assertTrue(position.getAmount() <= cap + TOLERANCE,
+                () -> position.getAmount() + " exceeds the per-opportunity cap " + cap);
+            double staked = 0.0;
+            for (StakeResponse stake : position.getStakes()) {
+                assertTrue(stake.getStakeAmount() >= 0, "negative stake");
+                staked += stake.getStakeAmount();
+                exposure.merge(stake.getProviderId(), stake.getStakeAmount(), Double::sum);
+            }
+            assertEquals(position.getAmount(), staked, TOLERANCE);
+            total += position.getAmount();
+        }
+        assertTrue(allocation.getPositions().size() <= opportunities.size());
+        assertEquals(total, allocation.getAllocated(), TOLERANCE);
+        assertTrue(total <= BANKROLL + TOLERANCE, () -> "allocated more than the bankroll");
+        exposure.forEach((provider, amount) -> {
+            Double explicit = settings.getProviderLimits() != null ? settings.getProviderLimits().get(provider) : null;
+            double limit = explicit != null ? explicit : settings.getMaxProviderExposure() * BANKROLL;
+            assertTrue(amount <= limit + TOLERANCE, () -> provider + " exposure " + amount + " exceeds " + limit);
+            assertEquals(amount, allocation.getProviderExposure().get(provider), TOLERANCE);
+        });
+    }
+
+    static PortfolioSettings settings(double maxOpportunityFraction, double maxProviderExposure) {
+        PortfolioSettings settings = new PortfolioSettings();
+        settings.setMaxOpportunityFraction(maxOpportunityFraction);
+        settings.setMaxProviderExposure(maxProviderExposure);
+        return settings;
+    }
+
+    /**
+     * Two- and three-leg opportunities over {@link #PROVIDERS} providers with edges up to 5%; a few carry no edge
+     * and must stay unallocated.
+     */
+    static List<OpportunityResponse> opportunities(int count, Random random) {
+        List<OpportunityResponse> opportunities = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            int legs = 2 + random.nextInt(2);
+            String[] providers = new String[legs];
+            double[] fractions = new double[legs];
+            double total = 0.0;
+            for (int leg = 0; leg < legs; leg++) {
+                providers[leg] = "provider-" + random.nextInt(PROVIDERS);
+                fractions[leg] = 0.2 + random.nextDouble();
+                total += fractions[leg];
+            }
+            for (int leg = 0; leg < legs; leg++) {
+                fractions[leg] /= total;
+            }
+            double edge = random.nextInt(20) == 0 ? 0.0 : random.nextDouble() * 0.05;
+            Double kelly = random.nextBoolean() ? 0.1 + random.nextDouble() : null;
+            opportunities.add(opportunity(k, edge, kelly, providers, fractions));
+        }
+        return opportunities;
+    }
+
+    private static OpportunityResponse opportunity(int index, double edge, Double kelly, String[] providers, double[] fractions) {
+        List<StakeResponse> stakes = new ArrayList<>(providers.length);
+        for (int leg = 0; leg < providers.length; leg++) {
+            StakeResponse stake = new StakeResponse();
+            stake.setRunner("runner-" + leg);
+            stake.setProviderId(providers[leg]);
+            stake.setProviderName(providers[leg]);
+            stake.setOdds(1.0 / ((1.0 - edge) * fractions[leg]));
+            stake.setStakeFraction(fractions[leg]);
+            stakes.add(stake);
+        }
+        RiskMetrics metrics = new RiskMetrics();
+        metrics.setKellyFraction(kelly);
+
+        OpportunityResponse opportunity = new OpportunityResponse();
+        opportunity.setEventId("event-" + index);
+        opportunity.setMarketName("Match Result");
+        opportunity.setGuaranteedProfitFraction(edge);
+        opportunity.setMetrics(metrics);
+        opportunity.setStakes(stakes);
+        return opportunity;
+    }
+}
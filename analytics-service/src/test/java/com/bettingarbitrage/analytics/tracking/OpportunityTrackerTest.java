@@ -0,0 +1,155 @@
+package com.bettingarbitrage.analytics.tracking;
+
+import com.bettingarbitrage.analytics.model.LifetimeReport;
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import com.bettingarbitrage.analytics.model.OpportunityResponse;
+import com.bettingarbitrage.analytics.model.StakeResponse;
+import com.bettingarbitrage.analytics.model.TrackedOpportunity;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OpportunityTrackerTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+    private static final long IDLE_TIMEOUT_MS = 600_000;
+
+    @Test
+    void opportunityStaysOpenWhileSeenAndClosesWhenItsMarketNoLongerYieldsIt() {
+        OpportunityTracker tracker = new OpportunityTracker(16, 4, 64, IDLE_TIMEOUT_MS);
+        List<MarketSnapshot> markets = List.of(market("e1", "Match Winner"));
+
+        tracker.record(T0, markets, List.of(opportunity("e1", "Match Winner", 0.02, "p1", "p2")));
+        tracker.record(T0 + 1_000, markets, List.of(opportunity("e1", "Match Winner", 0.03, "p1", "p2")));
+        LifetimeReport open = tracker.report(10);
+        assertEquals(1, open.getActive());
+        TrackedOpportunity tracked = open.getOpen().get(0);
+        assertEquals(Instant.ofEpochMilli(T0), tracked.getFirstSeen());
+        assertEquals(Instant.ofEpochMilli(T0 + 1_000), tracked.getLastSeen());
+        assertEquals(0.03, tracked.getPeakEdge(), 1e-9);
+        assertArrayEquals(new double[] {0.02, 0.03}, tracked.getEdges(), 1e-9);
+
+        tracker.record(T0 + 4_000, markets, List.of());
+        LifetimeReport closed = tracker.report(10);
+        assertEquals(0, closed.getActive());
+        assertEquals(1, closed.getClosed());
+        assertEquals(4_000, closed.getLifetimeMaxMillis());
+    }
+
+    @Test
+    void sameNumberOfOpportunitiesWithDifferentProvidersStillClosesTheOldOne() {
+        OpportunityTracker tracker = new OpportunityTracker(16, 4, 64, IDLE_TIMEOUT_MS);
+        List<MarketSnapshot> markets = List.of(market("e1", "Match Winner"));
+
+        tracker.record(T0, markets, List.of(opportunity("e1", "Match Winner", 0.02, "p1", "p2")));
+        tracker.record(T0 + 2_000, markets, List.of(opportunity("e1", "Match Winner", 0.02, "p1", "p3")));
+
+        LifetimeReport report = tracker.report(10);
+        assertEquals(1, report.getActive());
+        assertEquals(1, report.getClosed());
+        assertEquals(2_000, report.getLifetimeMaxMillis());
+        assertTrue(report.getOpen().get(0).getProviders().contains("away@p3"));
+    }
+
+    @Test
+    void uncoveredOpportunitiesStayOpenUntilIdle() {
+        OpportunityTracker tracker = new OpportunityTracker(16, 4, 64, 10_000);
+        tracker.record(T0, List.of(market("e1", "Match Winner")), List.of(opportunity("e1", "Match Winner", 0.02, "p1", "p2")));
+
+        // Other events are analysed; e1 is not covered, so only the idle timeout can close it.
+        tracker.record(T0 + 10_000, List.of(market("e2", "Match Winner")), List.of());
+        assertEquals(1, tracker.report(0).getActive());
+        tracker.record(T0 + 10_001, List.of(market("e2", "Match Winner")), List.of());
+        LifetimeReport report = tracker.report(0);
+        assertEquals(0, report.getActive());
+        assertEquals(1, report.getClosed());
+    }
+
+    @Test
+    void crossMarketOpportunitiesCloseWithAnyAnalysisOfTheirEvent() {
+        OpportunityTracker tracker = new OpportunityTracker(16, 4, 64, IDLE_TIMEOUT_MS);
+        OpportunityResponse cross = opportunity("e1", "Total Goals 2.5 / Both Teams To Score", 0.01, "p1", "p2");
+        cross.setCrossMarket(true);
+        tracker.record(T0, List.of(market("e1", "Total Goals")), List.of(cross));
+
+        tracker.record(T0 + 500, List.of(market("e1", "Both Teams To Score")), List.of());
+        assertEquals(0, tracker.report(0).getActive());
+        assertEquals(1, tracker.report(0).getClosed());
+    }
+
+    @Test
+    void fullTrackerEvictsTheLeastRecentlySeenOpportunity() {
+        OpportunityTracker tracker = new OpportunityTracker(2, 4, 64, IDLE_TIMEOUT_MS);
+        tracker.record(T0, List.of(), List.of(opportunity("e1", "Match Winner", 0.01, "p1", "p2")));
+        tracker.record(T0 + 1, List.of(), List.of(opportunity("e2", "Match Winner", 0.02, "p1", "p2")));
+        // e1 is seen again, which leaves e2 as the stalest.
+        tracker.record(T0 + 2, List.of(), List.of(opportunity("e1", "Match Winner", 0.01, "p1", "p2")));
+        tracker.record(T0 + 3, List.of(), List.of(opportunity("e3", "Match Winner", 0.03, "p1", "p2")));
+
+        LifetimeReport report = tracker.report(10);
+        assertEquals(2, report.getActive());
+        assertEquals(1, report.getEvicted());
+        assertEquals(0, report.getClosed());
+        assertEquals(List.of("e3", "e1"), report.getOpen().stream().map(TrackedOpportunity::getEventId).toList());
+
+        // Slots freed by closing are reused before anything else is evicted.
+        tracker.record(T0 + 4, List.of(market("e3", "Match Winner")), List.of());
+        tracker.record(T0 + 5, List.of(), List.of(opportunity("e4", "Match Winner", 0.04, "p1", "p2")));
+        tracker.record(T0 + 6, List.of(), List.of(opportunity("e5", "Match Winner", 0.05, "p1", "p2")));
+        report = tracker.report(10);
+        assertEquals(2, report.getEvicted());
+        assertEquals(List.of("e5", "e4"), report.getOpen().stream().map(TrackedOpportunity::getEventId).toList());
+    }
+
+    @Test
+    void resetForgetsOpenOpportunitiesAndLifetimes() {
+        OpportunityTracker tracker = new OpportunityTracker(2, 4, 64, IDLE_TIMEOUT_MS);
+        List<MarketSnapshot> markets = List.of(market("e1", "Match Winner"));
+        tracker.record(T0, markets, List.of(opportunity("e1", "Match Winner", 0.01, "p1", "p2")));
+        tracker.record(T0 + 1_000, markets, List.of(opportunity("e1", "Match Winner", 0.01, "p1", "p3")));
+
+        tracker.reset();
+        LifetimeReport report = tracker.report(10);
+        assertEquals(0, report.getActive());
+        assertEquals(0, report.getClosed());
+        assertEquals(0, report.getLifetimeSamples());
+        assertNull(report.getLifetimeMaxMillis());
+
+        // Every slot is free again: filling the tracker evicts nothing.
+        tracker.record(T0 + 2_000, List.of(), List.of(
+            opportunity("e2", "Match Winner", 0.01, "p1", "p2"),
+            opportunity("e3", "Match Winner", 0.01, "p1", "p2")));
+        assertEquals(2, tracker.report(0).getActive());
+        assertEquals(0, tracker.report(0).getEvicted());
+    }
+
+    private static MarketSnapshot market(String eventId, String marketName) {
+        MarketSnapshot market = new MarketSnapshot();
+        market.setEventId(eventId);
+        market.setMarketName(marketName);
+        return market;
+    }
+
+    private static OpportunityResponse opportunity(String eventId, String marketName, double edge,
+                                                   String homeProvider, String awayProvider) {
+        OpportunityResponse opportunity = new OpportunityResponse();
+        opportunity.setEventId(eventId);
+        opportunity.setMarketName(marketName);
+        opportunity.setGuaranteedProfitFraction(edge);
+        opportunity.setStakes(List.of(stake("home", homeProvider), stake("away", awayProvider)));
+        return opportunity;
+    }
+
+    private static StakeResponse stake(String runner, String providerId) {
+        StakeResponse stake = new StakeResponse();
+        stake.setRunner(runner);
+        stake.setProviderId(providerId);
+        return stake;
+    }
+}
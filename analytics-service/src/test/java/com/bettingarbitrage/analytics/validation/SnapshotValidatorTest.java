@@ -0,0 +1,110 @@
+package com.bettingarbitrage.analytics.validation;
+
+import com.bettingarbitrage.analytics.model.MarketSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotValidatorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void validSnapshotIsReturnedAsIs() {
+        List<MarketSnapshot> markets = List.of(quote("e1", 2.1), quote("e1", 1.9));
+
+        SnapshotValidator.Result result = new SnapshotValidator("strict", meterRegistry).validate(markets);
+
+        assertSame(markets, result.getAccepted());
+        assertEquals(0, result.getDropped());
+    }
+
+    @Test
+    void strictModeRejectsTheSnapshotListingEveryViolation() {
+        MarketSnapshot blank = quote(" ", 2.1);
+        blank.getProvider().setName(null);
+        MarketSnapshot evenMoney = quote("e1", 1.0);
+        MarketSnapshot noRunner = quote("e1", Double.NaN);
+        noRunner.setRunner(null);
+        List<MarketSnapshot> markets = new ArrayList<>(List.of(quote("e1", 2.1), blank, evenMoney, noRunner));
+        markets.add(null);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+            () -> new SnapshotValidator("strict", meterRegistry).validate(markets, List.of("providers[0].price: bad")));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        assertEquals("Invalid market snapshot (7 violations): providers[0].price: bad; "
+            + "markets[1].eventId: must not be blank; markets[1].provider.name: must not be blank; "
+            + "markets[2].oddsDecimal: must be greater than 1; markets[3].runner: must not be null; "
+            + "markets[3].oddsDecimal: must be greater than 1; markets[4]: must not be null", ex.getReason());
+        assertEquals(0.0, droppedCount());
+    }
+
+    @Test
+    void strictModeReportsAtMostFiftyViolations() {
+        List<MarketSnapshot> markets = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            markets.add(quote("e1", 0.5));
+        }
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+            () -> new SnapshotValidator("strict", meterRegistry).validate(markets));
+
+        String reason = ex.getReason();
+        assertTrue(reason.startsWith("Invalid market snapshot (60 violations): markets[0]."), reason);
+        assertTrue(reason.endsWith("markets[49].oddsDecimal: must be greater than 1; ..."), reason);
+    }
+
+    @Test
+    void lenientModeDropsAndCountsInvalidQuotes() {
+        SnapshotValidator validator = new SnapshotValidator(" Lenient ", meterRegistry);
+        MarketSnapshot valid = quote("e1", 2.1);
+        MarketSnapshot negative = quote("e1", -3.0);
+        MarketSnapshot unnamed = quote("e1", 2.0);
+        unnamed.setEventName("");
+
+        SnapshotValidator.Result result = validator.validate(
+            List.of(valid, negative, unnamed), List.of("providers[0].price: bad"));
+
+        assertEquals(ValidationMode.LENIENT, validator.getMode());
+        assertEquals(List.of(valid), result.getAccepted());
+        assertEquals(3, result.getDropped());
+        assertEquals(3.0, droppedCount());
+
+        // Warm-up traffic is validated the same way but left out of the counter.
+        assertEquals(1, validator.validate(List.of(valid, negative), List.of(), false).getDropped());
+        assertEquals(3.0, droppedCount());
+    }
+
+    private double droppedCount() {
+        return meterRegistry.get("analytics.validation.dropped").counter().count();
+    }
+
+    private static MarketSnapshot quote(String eventId, double odds) {
+        MarketSnapshot.Runner runner = new MarketSnapshot.Runner();
+        runner.setId("home");
+        runner.setName("Home");
+        MarketSnapshot.Provider provider = new MarketSnapshot.Provider();
+        provider.setId("p1");
+        provider.setName("Provider One");
+
+        MarketSnapshot quote = new MarketSnapshot();
+        quote.setEventId(eventId);
+        quote.setEventName("Home vs Away");
+        quote.setMarketName("Match Winner");
+        quote.setRunner(runner);
+        quote.setProvider(provider);
+        quote.setOddsDecimal(odds);
+        quote.setImpliedProbability(1.0 / odds);
+        return quote;
+    }
+}
@@ -0,0 +1,129 @@
+package com.bettingarbitrage.analytics.warmup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WarmupRunnerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final List<Object> events = new ArrayList<>();
+    private final ApplicationEventPublisher publisher = events::add;
+
+    @Test
+    void stopsOnceTheP90OfTheWindowIsWithinTarget() {
+        WarmupRunner runner = runner(60_000, 50, 10);
+        int[] calls = {0};
+
+        // Ten slow calls fill the window; it takes nine fast ones before at most one slow call is left in it.
+        WarmupRunner.Outcome outcome = runner.warmUp(publisher, random -> calls[0]++ < 10 ? SLOW : FAST);
+
+        assertTrue(outcome.targetMet());
+        assertEquals(19, outcome.iterations());
+        assertEquals(5, outcome.p90Millis());
+    }
+
+    @Test
+    void stopsAtTheDeadlineWhenTheTargetIsNeverMet() {
+        WarmupRunner runner = runner(30, 50, 10);
+        long started = System.nanoTime();
+
+        WarmupRunner.Outcome outcome = runner.warmUp(publisher, random -> {
+            sleepMillis(1);
+            return SLOW;
+        });
+
+        assertFalse(outcome.targetMet());
+        assertTrue(outcome.iterations() > 0);
+        assertEquals(200, outcome.p90Millis());
+        assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(30));
+    }
+
+    @Test
+    void failedCallEndsTheWarmUp() {
+        WarmupRunner runner = runner(60_000, 50, 10);
+        int[] calls = {0};
+
+        WarmupRunner.Outcome outcome = runner.warmUp(publisher, random -> {
+            if (++calls[0] == 3) {
+                throw new ResourceAccessException("connection refused");
+            }
+            return SLOW;
+        });
+
+        assertFalse(outcome.targetMet());
+        assertEquals(2, outcome.iterations());
+    }
+
+    @Test
+    void readinessIsRefusedBeforeTheFirstCallAndLeftToTheApplication() {
+        WarmupRunner runner = runner(60_000, 50, 1);
+
+        runner.warmUp(publisher, random -> {
+            assertEquals(List.of(ReadinessState.REFUSING_TRAFFIC), readinessStates());
+            return FAST;
+        });
+
+        // Spring Boot reports ACCEPTING_TRAFFIC itself once every runner has returned.
+        assertEquals(List.of(ReadinessState.REFUSING_TRAFFIC), readinessStates());
+    }
+
+    @Test
+    void onlyTheTokenFromLoopbackMarksAWarmUpRequest() {
+        WarmupRunner runner = runner(60_000, 50, 10);
+        String token = runner.token();
+
+        assertTrue(runner.isWarmup(request(token, "127.0.0.1")));
+        assertTrue(runner.isWarmup(request(token, "0:0:0:0:0:0:0:1")));
+        assertFalse(runner.isWarmup(request(token, "203.0.113.7")), "token from a remote client");
+        assertFalse(runner.isWarmup(request("true", "127.0.0.1")), "guessed header value");
+        assertFalse(runner.isWarmup(request(null, "127.0.0.1")));
+        assertNotEquals(token, runner(60_000, 50, 10).token(), "token is drawn per instance");
+    }
+
+    private List<ReadinessState> readinessStates() {
+        List<ReadinessState> states = new ArrayList<>();
+        for (Object event : events) {
+            if (event instanceof AvailabilityChangeEvent<?> change && change.getState() instanceof ReadinessState state) {
+                states.add(state);
+            }
+        }
+        return states;
+    }
+
+    private static WarmupRunner runner(long durationMs, long targetLatencyMs, int window) {
+        return new WarmupRunner(null, RestClient.builder(), true, 10, durationMs, targetLatencyMs, window, 100);
+    }
+
+    private static MockHttpServletRequest request(String header, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/analyze");
+        if (header != null) {
+            request.addHeader(WarmupRunner.HEADER, header);
+        }
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    private static void sleepMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
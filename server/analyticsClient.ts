@@ -13,6 +13,8 @@ const ANALYTICS_TIMEOUT_MS = Number.parseInt(
   10
 );
 const ANALYTICS_URL = process.env.ANALYTICS_URL ?? "http://localhost:8081";
+// Headroom for serialising and transferring the response before the abort fires.
+const ANALYTICS_DEADLINE_MARGIN_MS = 500;
 
 const analyzeResponseSchema = z.object({
   opportunities: z.array(
@@ -58,7 +60,12 @@ export async function analyzeMarkets(
 
     const response = await fetch(`${ANALYTICS_URL}/api/analyze`, {
       method: "POST",
-      headers: { "Content-Type": "application/json" },
+      headers: {
+        "Content-Type": "application/json",
+        "X-Analytics-Deadline-Ms": String(
+          Math.max(1, ANALYTICS_TIMEOUT_MS - ANALYTICS_DEADLINE_MARGIN_MS)
+        ),
+      },
       body: JSON.stringify(payload),
       signal: controller.signal,
     });